@@ -0,0 +1,148 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.example.parser.CopybookParser;
+import org.example.parser.codec.CodePage;
+import org.example.parser.record.CompiledLayout;
+import org.example.parser.record.GeneratedRecordDecoder;
+import org.example.parser.record.JsonLinesExporter;
+import org.example.parser.record.RecordDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Records decoded per second from an in-memory fixture, with a field mix covering every encoding. Scores are
+ * per record; multiply by the record length for bytes per second. The {@code generated} variants decode the
+ * same records with a {@link GeneratedRecordDecoder} compiled for the layout, against the interpreted
+ * {@link RecordDecoder}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DecodeBenchmark {
+    static final int RECORDS = 10_000;
+
+    @Param({"12", "120"})
+    public int fields;
+
+    @Param({"ASCII", "CP037"})
+    public String codePage;
+
+    private CompiledLayout layout;
+    private byte[] data;
+    private ByteBuffer buffer;
+    private RecordDecoder decoder;
+    private GeneratedRecordDecoder generated;
+    private Object[] values;
+    private long[] longs;
+    private int[] numericFields;
+    private JsonLinesExporter exporter;
+    private JsonGenerator generator;
+
+    @Setup
+    public void setUp() throws IOException {
+        CodePage page = CodePage.forName(codePage);
+        CopybookParser.ParseResult result = new CopybookParser().parseCopybook("data.cbl",
+                SyntheticCopybook.dataRecord(fields));
+        FixtureGenerator fixtures = new FixtureGenerator(result, page, 42);
+        layout = fixtures.getLayouts().get(0);
+        data = fixtures.generate(RECORDS);
+
+        buffer = ByteBuffer.wrap(data);
+
+        decoder = new RecordDecoder(layout, page);
+        generated = GeneratedRecordDecoder.generate(layout, page);
+        values = new Object[layout.getFieldCount()];
+        longs = new long[layout.getFieldCount()];
+        numericFields = IntStream.range(0, layout.getFieldCount())
+                .filter(i -> layout.getType(i).isNumeric() && layout.fitsLong(i))
+                .toArray();
+        exporter = new JsonLinesExporter(layout, page);
+        generator = JsonLinesExporter.createGenerator(OutputStream.nullOutputStream());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        generator.close();
+    }
+
+    /** Every field into its natural Java type, as a generic consumer would. */
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void decodeValues(Blackhole blackhole) {
+        int length = layout.getRecordLength();
+        for (int record = 0; record < RECORDS; record++) {
+            blackhole.consume(decoder.wrap(data, record * length).decode(values));
+        }
+    }
+
+    /** Numeric fields as unscaled primitives, the allocation-free path. */
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long sumNumeric() {
+        int length = layout.getRecordLength();
+        long sum = 0;
+        for (int record = 0; record < RECORDS; record++) {
+            decoder.wrap(data, record * length);
+            for (int field : numericFields) {
+                sum += decoder.getLong(field);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void generatedDecodeValues(Blackhole blackhole) {
+        int length = layout.getRecordLength();
+        for (int record = 0; record < RECORDS; record++) {
+            blackhole.consume(generated.decode(buffer, record * length, values));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long generatedSumNumeric() {
+        int length = layout.getRecordLength();
+        long sum = 0;
+        for (int record = 0; record < RECORDS; record++) {
+            generated.decodeLongs(buffer, record * length, longs);
+            for (int field : numericFields) {
+                sum += longs[field];
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void jsonLines() throws IOException {
+        int length = layout.getRecordLength();
+        for (int record = 0; record < RECORDS; record++) {
+            exporter.write(decoder.wrap(data, record * length), generator);
+        }
+        generator.flush();
+    }
+}
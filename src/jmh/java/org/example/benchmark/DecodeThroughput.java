@@ -0,0 +1,126 @@
+package org.example.benchmark;
+
+import org.example.parser.CopybookParser;
+import org.example.parser.codec.CodePage;
+import org.example.parser.record.CompiledLayout;
+import org.example.parser.record.MappedRecordReader;
+import org.example.parser.record.RecordDecoder;
+import org.example.parser.record.RecordSpliterator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * End-to-end decoding throughput on a data file, in MB/s and records/s, for the three ways of reading it:
+ * sequential channel reads into a heap buffer, a {@link MappedRecordReader}, and a parallel
+ * {@link RecordSpliterator} stream. Every record has all its fields decoded. Each mode runs a few times and the
+ * best run is reported, so the numbers reflect a warm JIT and page cache.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=org.example.benchmark.DecodeThroughput \
+ *     -Djmh.args="customer.cbl customer.dat CP037"
+ * </pre>
+ *
+ * Without arguments a fixture of two million synthetic records is generated in the temporary directory.
+ */
+public final class DecodeThroughput {
+    private static final int RUNS = 5;
+    private static final int READ_BUFFER_BYTES = 4 * 1024 * 1024;
+
+    private DecodeThroughput() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        CodePage codePage = args.length > 2 ? CodePage.forName(args[2]) : CodePage.ASCII;
+        CopybookParser.ParseResult result;
+        Path dataFile;
+        if (args.length >= 2) {
+            result = new CopybookParser().parseCopybook(Paths.get(args[0]));
+            dataFile = Paths.get(args[1]);
+        } else {
+            result = new CopybookParser().parseCopybook("data.cbl", SyntheticCopybook.dataRecord(24));
+            dataFile = Files.createTempFile("decode-throughput", ".dat");
+            dataFile.toFile().deleteOnExit();
+            new FixtureGenerator(result, codePage, 42).write(dataFile, 2_000_000);
+        }
+
+        CompiledLayout layout = CompiledLayout.compile(result).get(0);
+        long bytes = Files.size(dataFile);
+        long records = bytes / layout.getRecordLength();
+        System.out.printf("%s: %,d records of %d bytes (%.1f MB), %s%n", dataFile, records,
+                layout.getRecordLength(), bytes / 1e6, codePage);
+
+        report("sequential", bytes, records, () -> sequential(layout, codePage, dataFile));
+        report("mmap", bytes, records, () -> mapped(layout, codePage, dataFile));
+        report("parallel", bytes, records, () -> parallel(layout, codePage, dataFile));
+    }
+
+    private interface Run {
+        long decode() throws IOException;
+    }
+
+    private static void report(String mode, long bytes, long records, Run run) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            long decoded = run.decode();
+            best = Math.min(best, System.nanoTime() - start);
+            if (decoded != records) {
+                throw new IllegalStateException(mode + " decoded " + decoded + " of " + records + " records");
+            }
+        }
+        double seconds = best / 1e9;
+        System.out.printf("%-10s %9.1f MB/s %,14.0f records/s%n", mode, bytes / 1e6 / seconds, records / seconds);
+    }
+
+    private static long sequential(CompiledLayout layout, CodePage codePage, Path dataFile) throws IOException {
+        int recordLength = layout.getRecordLength();
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(1, READ_BUFFER_BYTES / recordLength) * recordLength);
+        RecordDecoder decoder = new RecordDecoder(layout, codePage);
+        Object[] values = new Object[layout.getFieldCount()];
+        long count = 0;
+
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0 || buffer.position() > 0) {
+                buffer.flip();
+                int whole = buffer.remaining() / recordLength * recordLength;
+                if (whole == 0) {
+                    break;
+                }
+                for (int offset = 0; offset < whole; offset += recordLength) {
+                    decoder.wrap(buffer, offset).decode(values);
+                    count++;
+                }
+                buffer.position(whole);
+                buffer.compact();
+            }
+        }
+        return count;
+    }
+
+    private static long mapped(CompiledLayout layout, CodePage codePage, Path dataFile) throws IOException {
+        Object[] values = new Object[layout.getFieldCount()];
+        long count = 0;
+        try (MappedRecordReader reader = new MappedRecordReader(layout, dataFile, codePage)) {
+            while (reader.next()) {
+                reader.record().decode(values);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long parallel(CompiledLayout layout, CodePage codePage, Path dataFile) throws IOException {
+        ThreadLocal<Object[]> values = ThreadLocal.withInitial(() -> new Object[layout.getFieldCount()]);
+        try (var stream = RecordSpliterator.stream(layout, codePage, dataFile,
+                decoder -> decoder.decode(values.get()).length, false)) {
+            // count() alone would skip the mapper on this sized stream
+            return stream.mapToLong(fields -> 1).sum();
+        }
+    }
+}
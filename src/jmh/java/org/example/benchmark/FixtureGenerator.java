@@ -0,0 +1,271 @@
+package org.example.benchmark;
+
+import org.example.parser.CopybookParser;
+import org.example.parser.codec.CodePage;
+import org.example.parser.codec.ZonedDecimalCodec;
+import org.example.parser.record.CompiledLayout;
+import org.example.parser.record.RecordEncoder;
+import org.example.parser.record.RecordTypeDispatcher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Writes fixed-length data files of random but valid records for any copybook: text in the chosen code page,
+ * zoned and packed decimals within their PIC digits and with valid signs, binary integers within their digit
+ * limits and normalized IBM hexadecimal floats. Files with several record layouts cycle through them and
+ * carry each layout's record type value, so they can be decoded with a {@link RecordTypeDispatcher}.
+ *
+ * <p>The same seed always produces the same file, so benchmark runs on different machines are comparable.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=org.example.benchmark.FixtureGenerator \
+ *     -Djmh.args="customer.cbl customer.dat 10000000 CP037"
+ * </pre>
+ */
+public final class FixtureGenerator {
+    private static final String TEXT = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
+    private static final int BATCH_BYTES = 4 * 1024 * 1024;
+
+    private final List<CompiledLayout> layouts;
+    private final CodePage codePage;
+    private final SplittableRandom random;
+    private final int recordLength;
+    private final byte[] textBytes;
+    private final byte[][] recordTypes;
+    private final int recordTypeOffset;
+
+    public FixtureGenerator(CopybookParser.ParseResult result, CodePage codePage, long seed) {
+        this.layouts = CompiledLayout.compile(result);
+        this.codePage = codePage;
+        this.random = new SplittableRandom(seed);
+        this.recordLength = layouts.get(0).getRecordLength();
+        for (CompiledLayout layout : layouts) {
+            if (layout.getRecordLength() != recordLength) {
+                throw new IllegalArgumentException("Layouts have different record lengths");
+            }
+        }
+
+        this.textBytes = new byte[TEXT.length()];
+        for (int i = 0; i < textBytes.length; i++) {
+            textBytes[i] = codePage.toByte(TEXT.charAt(i));
+        }
+
+        // Records of a multi-layout file start with their layout's first record type value
+        this.recordTypes = new byte[layouts.size()][];
+        int offset = -1;
+        if (!result.getRecordLayouts().isEmpty()) {
+            try {
+                RecordTypeDispatcher dispatcher = RecordTypeDispatcher.of(result, layouts, codePage, -1);
+                offset = dispatcher.getDiscriminatorOffset();
+                for (int i = 0; i < layouts.size(); i++) {
+                    List<String> values = result.getRecordLayouts().get(i).getRecordTypeValues();
+                    if (!values.isEmpty() && values.get(0) != null) {
+                        recordTypes[i] = recordType(layouts.get(i), offset, dispatcher.getDiscriminatorLength(),
+                                values.get(0));
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // No usable record type: every record gets random values only
+                offset = -1;
+            }
+        }
+        this.recordTypeOffset = offset;
+    }
+
+    public List<CompiledLayout> getLayouts() { return layouts; }
+    public int getRecordLength() { return recordLength; }
+
+    /**
+     * Fills one record at {@code offset} with random values for layout {@code layoutIndex}.
+     */
+    public void fill(ByteBuffer buffer, int offset, int layoutIndex) {
+        CompiledLayout layout = layouts.get(layoutIndex);
+        for (int i = offset; i < offset + recordLength; i++) {
+            buffer.put(i, codePage.getSpace());
+        }
+        for (int field = 0; field < layout.getFieldCount(); field++) {
+            fillField(buffer, offset + layout.getOffset(field), layout, field);
+        }
+        if (recordTypeOffset >= 0 && recordTypes[layoutIndex] != null) {
+            buffer.put(offset + recordTypeOffset, recordTypes[layoutIndex]);
+        }
+    }
+
+    /**
+     * Returns {@code records} consecutive records in memory, cycling through the layouts.
+     */
+    public byte[] generate(int records) {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.multiplyExact(records, recordLength));
+        for (int record = 0; record < records; record++) {
+            fill(buffer, record * recordLength, record % layouts.size());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Writes {@code records} records to {@code file}, replacing it, in batches of a few megabytes.
+     */
+    public void write(Path file, long records) throws IOException {
+        int perBatch = Math.max(1, BATCH_BYTES / recordLength);
+        ByteBuffer batch = ByteBuffer.allocateDirect(perBatch * recordLength);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long record = 0;
+            while (record < records) {
+                int count = (int) Math.min(perBatch, records - record);
+                for (int i = 0; i < count; i++) {
+                    fill(batch, i * recordLength, (int) ((record + i) % layouts.size()));
+                }
+                batch.clear().limit(count * recordLength);
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                record += count;
+            }
+        }
+    }
+
+    private void fillField(ByteBuffer buffer, int position, CompiledLayout layout, int field) {
+        int length = layout.getLength(field);
+        switch (layout.getType(field)) {
+            case ALPHANUMERIC -> {
+                for (int i = 0; i < length; i++) {
+                    buffer.put(position + i, textBytes[random.nextInt(textBytes.length)]);
+                }
+            }
+            case ZONED_DECIMAL -> fillZoned(buffer, position, length, layout.getSign(field));
+            case PACKED_DECIMAL -> fillPacked(buffer, position, length, layout.getDigits(field), layout.isSigned(field));
+            case BINARY -> fillBinary(buffer, position, length, layout.getDigits(field), layout.isSigned(field));
+            case NATIVE_BINARY -> fillBinary(buffer, position, length, 0, layout.isSigned(field));
+            case FLOAT -> buffer.putInt(position, (int) hexFloat(6));
+            case DOUBLE -> buffer.putLong(position, hexFloat(14));
+        }
+    }
+
+    private void fillZoned(ByteBuffer buffer, int position, int length, ZonedDecimalCodec.Sign sign) {
+        boolean negative = sign != ZonedDecimalCodec.Sign.NONE && random.nextBoolean();
+        int first = sign == ZonedDecimalCodec.Sign.LEADING_SEPARATE ? position + 1 : position;
+        int end = sign == ZonedDecimalCodec.Sign.TRAILING_SEPARATE ? position + length - 1 : position + length;
+        for (int i = first; i < end; i++) {
+            buffer.put(i, codePage.toByte((char) ('0' + random.nextInt(10))));
+        }
+
+        switch (sign) {
+            case NONE -> {
+            }
+            case TRAILING -> buffer.put(end - 1, overpunch(buffer.get(end - 1), negative));
+            case LEADING -> buffer.put(first, overpunch(buffer.get(first), negative));
+            case TRAILING_SEPARATE -> buffer.put(end, codePage.toByte(negative ? '-' : '+'));
+            case LEADING_SEPARATE -> buffer.put(position, codePage.toByte(negative ? '-' : '+'));
+        }
+    }
+
+    private byte overpunch(byte digit, boolean negative) {
+        int value = digit & 0x0F;
+        if (codePage.isEbcdic()) {
+            return (byte) ((negative ? 0xD0 : 0xC0) | value);
+        }
+        return (byte) (negative ? 'p' + value : '0' + value);
+    }
+
+    private void fillPacked(ByteBuffer buffer, int position, int length, int digits, boolean signed) {
+        int nibbles = length * 2 - 1;
+        int leadingZeros = digits > 0 ? Math.max(0, nibbles - digits) : 0;
+        for (int i = 0; i < length; i++) {
+            int high = i * 2 < leadingZeros ? 0 : random.nextInt(10);
+            int low;
+            if (i == length - 1) {
+                low = !signed ? 0x0F : random.nextBoolean() ? 0x0D : 0x0C;
+            } else {
+                low = i * 2 + 1 < leadingZeros ? 0 : random.nextInt(10);
+            }
+            buffer.put(position + i, (byte) (high << 4 | low));
+        }
+    }
+
+    private void fillBinary(ByteBuffer buffer, int position, int length, int digits, boolean signed) {
+        long value;
+        if (digits > 0 && digits < 19) {
+            long limit = 1;
+            for (int i = 0; i < digits; i++) {
+                limit *= 10;
+            }
+            value = random.nextLong(limit);
+            if (signed && random.nextBoolean()) {
+                value = -value;
+            }
+        } else {
+            value = random.nextLong();
+            if (!signed && length == Long.BYTES) {
+                value &= Long.MAX_VALUE;
+            }
+        }
+
+        switch (length) {
+            case 2 -> buffer.putShort(position, (short) value);
+            case 4 -> buffer.putInt(position, (int) value);
+            case 8 -> buffer.putLong(position, value);
+            default -> throw new IllegalArgumentException("Unsupported binary field length " + length);
+        }
+    }
+
+    /**
+     * Returns a normalized IBM hexadecimal float with {@code fractionDigits} hex digits, right-aligned in a long:
+     * sign bit, excess-64 exponent near 0, and a fraction whose first hex digit is not zero.
+     */
+    private long hexFloat(int fractionDigits) {
+        int fractionBits = fractionDigits * 4;
+        long fraction = (1L + random.nextLong(15)) << (fractionBits - 4) | random.nextLong(1L << (fractionBits - 4));
+        long exponent = 64 + random.nextInt(-4, 5);
+        long sign = random.nextBoolean() ? 1 : 0;
+        return sign << (fractionBits + 7) | exponent << fractionBits | fraction;
+    }
+
+    /**
+     * Encodes a record type value through a {@link RecordEncoder}, so it is stored exactly as the dispatcher
+     * expects it: space-padded text, or zero-padded digits for a numeric record type field. Returns null when
+     * the layout has no field at the record type's position.
+     */
+    private byte[] recordType(CompiledLayout layout, int offset, int length, String value) {
+        for (int field = 0; field < layout.getFieldCount(); field++) {
+            if (layout.getOffset(field) == offset && layout.getLength(field) == length) {
+                byte[] record = new byte[recordLength];
+                new RecordEncoder(layout, codePage).wrap(record)
+                        .setValue(field, layout.getType(field).isNumeric() ? Long.valueOf(value) : value);
+                return Arrays.copyOfRange(record, offset, offset + length);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@code FixtureGenerator <copybook> <data file> <records> [code page] [seed]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: FixtureGenerator <copybook> <data file> <records> [code page] [seed]");
+            System.exit(1);
+        }
+
+        CopybookParser.ParseResult result = new CopybookParser().parseCopybook(Paths.get(args[0]));
+        CodePage codePage = args.length > 3 ? CodePage.forName(args[3]) : CodePage.ASCII;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+        long records = Long.parseLong(args[2]);
+
+        FixtureGenerator generator = new FixtureGenerator(result, codePage, seed);
+        long start = System.nanoTime();
+        generator.write(Paths.get(args[1]), records);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %,d records of %d bytes to %s in %.1f s%n", records, generator.getRecordLength(),
+                args[1], seconds);
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.benchmark;
+
+import org.example.parser.CopybookParser;
+import org.example.parser.util.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of parse results: {@link JsonUtils#toJson} and {@link JsonUtils#toPrettyJson} build the whole
+ * document as a String, while the streaming variant writes to a discarding stream as the CLI does to a file.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    @Param({"FLAT", "NESTED", "OCCURS", "REDEFINES", "MULTI_LAYOUT"})
+    public SyntheticCopybook.Shape shape;
+
+    @Param({"100", "1000", "10000"})
+    public int fields;
+
+    private CopybookParser.ParseResult result;
+
+    @Setup
+    public void setUp() throws IOException {
+        result = new CopybookParser().parseCopybook("synthetic.cbl", SyntheticCopybook.generate(shape, fields));
+    }
+
+    @Benchmark
+    public String toJson() throws IOException {
+        return JsonUtils.toJson(result);
+    }
+
+    @Benchmark
+    public String toPrettyJson() throws IOException {
+        return JsonUtils.toPrettyJson(result);
+    }
+
+    @Benchmark
+    public void writePrettyJson() throws IOException {
+        JsonUtils.writePrettyJson(result, OutputStream.nullOutputStream());
+    }
+}
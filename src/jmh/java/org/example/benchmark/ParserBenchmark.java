@@ -0,0 +1,53 @@
+package org.example.benchmark;
+
+import org.example.parser.CopybookParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a full {@link CopybookParser#parseCopybook(String, List)}: tokenizing, record type analysis and
+ * building the field tree and layouts. Running it across the {@code fields} sizes, up to copybooks of about 100k
+ * lines, shows whether parsing stays linear in the copybook size; {@code CopybookParserScalingTest} enforces
+ * that in the perf test profile (mvn -Pperf test).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    @Param({"FLAT", "NESTED", "OCCURS", "REDEFINES", "MULTI_LAYOUT"})
+    public SyntheticCopybook.Shape shape;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int fields;
+
+    private List<String> lines;
+    private CopybookParser parser;
+
+    @Setup
+    public void setUp() {
+        lines = SyntheticCopybook.generate(shape, fields);
+        parser = new CopybookParser();
+    }
+
+    @Benchmark
+    public CopybookParser.ParseResult parse() throws IOException {
+        return parser.parseCopybook("synthetic.cbl", lines);
+    }
+}
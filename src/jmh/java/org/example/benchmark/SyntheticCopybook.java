@@ -0,0 +1,180 @@
+package org.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates copybooks of a given shape and size for the benchmarks, so each code path can be measured at
+ * several scales without checking large fixtures in.
+ */
+public final class SyntheticCopybook {
+
+    public enum Shape {
+        /** One record of elementary fields. */
+        FLAT,
+        /** Groups nested eight levels deep. */
+        NESTED,
+        /** Groups repeated with OCCURS. */
+        OCCURS,
+        /** Separate 01-level records that REDEFINES a base record, each with its own record type. */
+        REDEFINES,
+        /** One record whose header, detail and trailer layouts share a record type field. */
+        MULTI_LAYOUT
+    }
+
+    private static final String[] PICTURES = {"X(10)", "9(7)", "S9(7)V99 COMP-3", "S9(4) COMP"};
+    private static final int[] LENGTHS = {10, 7, 5, 2};
+    private static final String INDENT = "       ";
+
+    /** Every encoding the decoder handles, for data records. */
+    private static final String[] DATA_PICTURES = {"X(12)", "9(7)", "S9(9)V99", "S9(7)V99 COMP-3",
+            "S9(4) COMP", "9(9) COMP", "S9(18) COMP", "X(3)", "S9(5)V99 SIGN LEADING SEPARATE",
+            "9(15)V99 COMP-3", "S9(9) COMP-5", "COMP-2"};
+    private static final int[] DATA_LENGTHS = {12, 7, 11, 5, 2, 4, 8, 3, 8, 9, 4, 8};
+
+    private final List<String> body = new ArrayList<>();
+    private int fieldNumber;
+
+    private SyntheticCopybook() {
+    }
+
+    /**
+     * Returns the lines of a copybook of the given shape with about {@code fields} elementary fields.
+     */
+    public static List<String> generate(Shape shape, int fields) {
+        SyntheticCopybook copybook = new SyntheticCopybook();
+        int recordLength = switch (shape) {
+            case FLAT -> copybook.flat(fields);
+            case NESTED -> copybook.nested(fields);
+            case OCCURS -> copybook.occurs(fields);
+            case REDEFINES -> copybook.redefines(fields);
+            case MULTI_LAYOUT -> copybook.multiLayout(fields);
+        };
+
+        List<String> lines = new ArrayList<>(copybook.body.size() + 1);
+        lines.add(INDENT.substring(1) + "* REC LEN: " + recordLength);
+        lines.addAll(copybook.body);
+        return lines;
+    }
+
+    /**
+     * Returns a copybook with one data record of {@code fields} fields cycling through every field encoding,
+     * laid out as a REDEFINES of a base record so that it compiles into a decodable layout.
+     */
+    public static List<String> dataRecord(int fields) {
+        SyntheticCopybook copybook = new SyntheticCopybook();
+        int length = 2;
+        for (int i = 0; i < fields; i++) {
+            length += DATA_LENGTHS[i % DATA_LENGTHS.length];
+        }
+
+        copybook.line(0, "01 BASE-REC.");
+        copybook.line(1, "05 FILLER PIC X(" + length + ").");
+        copybook.line(0, "01 DATA-REC REDEFINES BASE-REC.");
+        copybook.line(1, "05 REC-TYPE PIC X(2).");
+        copybook.line(2, "88 IS-DATA VALUE 'DA'.");
+        for (int i = 0; i < fields; i++) {
+            String picture = DATA_PICTURES[i % DATA_PICTURES.length];
+            copybook.line(1, "05 D" + number(i + 1) + (picture.startsWith("COMP") ? " " : " PIC ") + picture + ".");
+        }
+
+        List<String> lines = new ArrayList<>(copybook.body.size() + 1);
+        lines.add(INDENT.substring(1) + "* REC LEN: " + length);
+        lines.addAll(copybook.body);
+        return lines;
+    }
+
+    private int flat(int fields) {
+        line(0, "01 FLAT-REC.");
+        return elementary(1, "05", fields);
+    }
+
+    private int nested(int fields) {
+        line(0, "01 NESTED-REC.");
+        int length = 0;
+        int group = 0;
+        while (fieldNumber < fields) {
+            for (int depth = 0; depth < 8; depth++) {
+                line(depth + 1, level(depth) + " G" + number(++group) + ".");
+            }
+            length += elementary(9, level(8), fieldNumber + Math.min(4, fields - fieldNumber));
+        }
+        return length;
+    }
+
+    private int occurs(int fields) {
+        line(0, "01 OCCURS-REC.");
+        int length = 0;
+        int table = 0;
+        while (fieldNumber < fields) {
+            line(1, "05 T" + number(++table) + " OCCURS 10 TIMES.");
+            length += 10 * elementary(2, "10", fieldNumber + Math.min(3, fields - fieldNumber));
+        }
+        return length;
+    }
+
+    private int redefines(int fields) {
+        int records = Math.max(1, fields / 20);
+        int length = 2 + 20 * LENGTHS[0];
+
+        line(0, "01 BASE-REC.");
+        line(1, "05 REC-TYPE PIC X(2).");
+        line(1, "05 FILLER PIC X(" + (length - 2) + ").");
+        for (int record = 1; record <= records; record++) {
+            String name = "R" + number(record);
+            line(0, "01 " + name + "-REC REDEFINES BASE-REC.");
+            line(1, "05 " + name + "-TYPE PIC X(2).");
+            line(2, "88 IS-" + name + " VALUE '" + recordType(record) + "'.");
+            elementary(1, "05", fieldNumber + Math.min(20, fields - fieldNumber));
+        }
+        return length;
+    }
+
+    private int multiLayout(int fields) {
+        line(0, "01 TRANSACTION-FILE.");
+        line(1, "05 RECORD-TYPE PIC X(2).");
+        line(2, "88 HDR-REC VALUE 'HD'.");
+        line(2, "88 DTL-REC VALUE 'DT'.");
+        line(2, "88 TRL-REC VALUE 'TR'.");
+
+        int perLayout = Math.max(1, fields / 3);
+        line(1, "05 HEADER-RECORD.");
+        int length = elementary(2, "10", perLayout);
+        line(1, "05 DETAIL-RECORD REDEFINES HEADER-RECORD.");
+        length = Math.max(length, elementary(2, "10", fieldNumber + perLayout));
+        line(1, "05 TRAILER-RECORD REDEFINES HEADER-RECORD.");
+        length = Math.max(length, elementary(2, "10", fieldNumber + perLayout));
+        return 2 + length;
+    }
+
+    /**
+     * Adds elementary fields until {@code untilField} have been generated and returns their total length.
+     */
+    private int elementary(int depth, String level, int untilField) {
+        int length = 0;
+        while (fieldNumber < untilField) {
+            int kind = fieldNumber % PICTURES.length;
+            line(depth, level + " F" + number(++fieldNumber) + " PIC " + PICTURES[kind] + ".");
+            length += LENGTHS[kind];
+        }
+        return length;
+    }
+
+    private void line(int depth, String text) {
+        // Three columns per level keeps the deepest nested fields inside column 72
+        body.add(INDENT + "   ".repeat(depth) + text);
+    }
+
+    private static String level(int depth) {
+        return String.format("%02d", (depth + 1) * 5);
+    }
+
+    private static String number(int value) {
+        return String.format("%06d", value);
+    }
+
+    private static String recordType(int record) {
+        String digits = Integer.toString(record, 36).toUpperCase();
+        return digits.length() == 1 ? "0" + digits : digits.substring(digits.length() - 2);
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.benchmark;
+
+import org.example.parser.CopybookTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link CopybookTokenizer#tokenize(List)} on synthetic copybooks. Add {@code -prof gc} to the
+ * JMH arguments for the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenizerBenchmark {
+
+    @Param({"FLAT", "NESTED", "OCCURS", "REDEFINES", "MULTI_LAYOUT"})
+    public SyntheticCopybook.Shape shape;
+
+    @Param({"100", "1000", "10000"})
+    public int fields;
+
+    private List<String> lines;
+
+    @Setup
+    public void setUp() {
+        lines = SyntheticCopybook.generate(shape, fields);
+    }
+
+    @Benchmark
+    public List<CopybookTokenizer.Token> tokenize() {
+        return CopybookTokenizer.tokenize(lines);
+    }
+}
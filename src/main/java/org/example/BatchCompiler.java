@@ -0,0 +1,222 @@
+package org.example;
+
+import org.example.parser.CopybookLibrary;
+import org.example.parser.CopybookParser;
+import org.example.parser.LayoutCache;
+import org.example.parser.ParserOptions;
+import org.example.parser.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Parses many copybooks at once for the CLI batch mode. Inputs are files, directories (searched recursively for
+ * copybook extensions) or glob patterns such as {@code copybooks/*.cpy}. Every copybook runs on its
+ * own virtual thread, with a semaphore capping how many parse and write at the same time. All jobs share one
+ * {@link CopybookLibrary}, so a member copied by many copybooks is read and tokenized once, and one
+ * {@link LayoutCache}, so watch mode reuses the parse of a copybook whose content and members hash as before,
+ * such as one saved back to an earlier version.
+ */
+final class BatchCompiler {
+    static final Set<String> COPYBOOK_EXTENSIONS = Set.of("cbl", "cpy", "cob", "copy");
+
+    /**
+     * One copybook to parse and the JSON file to write it to.
+     */
+    record Job(Path input, Path output) {
+    }
+
+    /**
+     * Result of one job; {@code error} is null when it succeeded.
+     */
+    record Outcome(Job job, long nanos, int layoutCount, Exception error) {
+        boolean succeeded() {
+            return error == null;
+        }
+    }
+
+    private final ParserOptions options;
+    private final CopybookLibrary library;
+    private final CopybookParser parser;
+    private final LayoutCache cache;
+    private final boolean prettyPrint;
+    private final int parallelism;
+
+    /**
+     * @param library resolves COPY statements; null to skip them as before
+     */
+    BatchCompiler(ParserOptions options, CopybookLibrary library, boolean prettyPrint, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.options = options;
+        this.library = library;
+        this.parser = new CopybookParser(options, library);
+        this.cache = new LayoutCache(LayoutCache.DEFAULT_MAX_ENTRIES, library);
+        this.prettyPrint = prettyPrint;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the library COPY statements are resolved from, or null.
+     */
+    CopybookLibrary getLibrary() {
+        return library;
+    }
+
+    static boolean isGlob(String input) {
+        return firstWildcard(input) < input.length();
+    }
+
+    static boolean isCopybook(Path path) {
+        String extension = FileUtils.getFileExtension(path.getFileName().toString()).toLowerCase(Locale.ROOT);
+        return Files.isRegularFile(path) && COPYBOOK_EXTENSIONS.contains(extension);
+    }
+
+    /**
+     * Where copybooks are looked for: a base directory and the files below it that belong to the input.
+     * A plain file input is its parent directory, searched without recursion, with a filter for that file.
+     */
+    record Source(Path base, Predicate<Path> filter, boolean recursive) {
+        boolean accepts(Path file) {
+            Path absolute = file.toAbsolutePath().normalize();
+            Path absoluteBase = base.toAbsolutePath().normalize();
+            if (!absolute.startsWith(absoluteBase) || (!recursive && !absoluteBase.equals(absolute.getParent()))) {
+                return false;
+            }
+            return filter.test(file);
+        }
+
+        List<Path> files() throws IOException {
+            try (Stream<Path> walk = Files.walk(base, recursive ? Integer.MAX_VALUE : 1)) {
+                return walk.filter(Files::isRegularFile).filter(filter).sorted().toList();
+            }
+        }
+    }
+
+    static Source source(String input) throws IOException {
+        if (isGlob(input)) {
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input);
+            return new Source(globBase(input), matcher::matches, true);
+        }
+
+        Path path = Paths.get(input);
+        if (Files.isDirectory(path)) {
+            return new Source(path, BatchCompiler::isCopybook, true);
+        }
+        if (Files.isRegularFile(path)) {
+            Path file = path.toAbsolutePath().normalize();
+            return new Source(file.getParent(), candidate -> candidate.toAbsolutePath().normalize().equals(file), false);
+        }
+        throw new IOException("No such copybook file or directory: " + input);
+    }
+
+    /**
+     * Expands the inputs into jobs, dropping duplicates. Without an output directory each JSON file is written
+     * next to its copybook; with one, the copybook's path below its directory or glob base is kept so that
+     * equally named copybooks from different folders do not collide.
+     */
+    static List<Job> plan(List<Source> sources, Path outputDir) throws IOException {
+        Map<Path, Job> jobs = new LinkedHashMap<>();
+        for (Source source : sources) {
+            for (Path file : source.files()) {
+                jobs.putIfAbsent(file.toAbsolutePath().normalize(), new Job(file, outputFor(file, source.base(), outputDir)));
+            }
+        }
+        return new ArrayList<>(jobs.values());
+    }
+
+    static Path outputFor(Path file, Path base, Path outputDir) {
+        if (outputDir == null) {
+            return Paths.get(FileUtils.removeExtension(file.toString()) + ".json");
+        }
+        Path relative = base.toAbsolutePath().normalize().relativize(file.toAbsolutePath().normalize());
+        return outputDir.resolve(FileUtils.removeExtension(relative.toString()) + ".json");
+    }
+
+    /**
+     * Returns the leading directories of a glob pattern that contain no wildcards.
+     */
+    private static Path globBase(String pattern) {
+        int wildcard = firstWildcard(pattern);
+        int separator = Math.max(pattern.lastIndexOf('/', wildcard), pattern.lastIndexOf(File.separatorChar, wildcard));
+        return separator < 0 ? Paths.get("") : Paths.get(pattern.substring(0, separator + 1));
+    }
+
+    private static int firstWildcard(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return i;
+            }
+        }
+        return pattern.length();
+    }
+
+    /**
+     * Runs every job and returns the outcomes in job order. Failures are recorded, never thrown.
+     */
+    List<Outcome> run(List<Job> jobs) throws InterruptedException {
+        Semaphore permits = new Semaphore(parallelism);
+        List<Future<Outcome>> futures = new ArrayList<>(jobs.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Job job : jobs) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return compile(job);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<Outcome> outcomes = new ArrayList<>(jobs.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    outcomes.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error error) {
+                        throw error;
+                    }
+                    outcomes.add(new Outcome(jobs.get(i), 0, 0, (Exception) e.getCause()));
+                }
+            }
+            return outcomes;
+        }
+    }
+
+    Outcome compile(Job job) {
+        long start = System.nanoTime();
+        try {
+            CopybookParser.ParseResult result = cache.get(job.input(), options);
+            Path parent = job.output().toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            parser.saveJsonToFile(result, job.output(), prettyPrint);
+            return new Outcome(job, System.nanoTime() - start, result.getRecordLayouts().size(), null);
+        } catch (Exception e) {
+            return new Outcome(job, System.nanoTime() - start, 0, e);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package org.example;
+
+import org.example.parser.CopybookLibrary;
+import org.example.parser.LayoutCache;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watch mode of the CLI. Directories of the batch sources are watched with a {@link WatchService}; when
+ * copybooks are created or modified, their content hash is compared with the last one seen and only copybooks
+ * whose bytes really changed are parsed again and have their JSON rewritten. Editors that save through temporary
+ * files or touch files without changing them therefore cost one hash each, not a parse.
+ *
+ * <p>With a copy library, the directories of its search path are watched too. When a COPY member changes, every
+ * copybook whose last parse copied it (as recorded by {@link CopybookLibrary#getDependents}) is compiled again,
+ * even though its own bytes are the same.
+ *
+ * <p>Events are collected until the directories have been quiet for {@link #QUIET_MILLIS}, so a save that
+ * produces several events compiles the copybook once.
+ */
+final class CopybookWatcher implements AutoCloseable {
+    static final long QUIET_MILLIS = 200;
+
+    private final List<BatchCompiler.Source> sources;
+    private final Path outputDir;
+    private final BatchCompiler compiler;
+    private final CopybookLibrary library;
+    private final PrintStream out;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final Map<Path, String> hashes = new HashMap<>();
+
+    /**
+     * Starts watching the source directories and the copy library's search path. Call {@link #seed} with the
+     * initial jobs before compiling them, so edits made during the initial build are picked up afterwards.
+     */
+    CopybookWatcher(List<BatchCompiler.Source> sources, Path outputDir, BatchCompiler compiler, PrintStream out)
+            throws IOException {
+        this.sources = sources;
+        this.outputDir = outputDir;
+        this.compiler = compiler;
+        this.library = compiler.getLibrary();
+        this.out = out;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        for (BatchCompiler.Source source : sources) {
+            register(source.base(), source.recursive());
+        }
+        if (library != null) {
+            for (Path directory : library.getSearchPath()) {
+                // COPY x OF lib looks in subdirectories, so the whole tree is watched
+                if (Files.isDirectory(directory)) {
+                    register(directory, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the current content hash of each job's copybook.
+     */
+    void seed(List<BatchCompiler.Job> jobs) {
+        for (BatchCompiler.Job job : jobs) {
+            String hash = hash(job.input());
+            if (hash != null) {
+                hashes.put(key(job.input()), hash);
+            }
+        }
+    }
+
+    /**
+     * Processes change events until the thread is interrupted or the watcher is closed.
+     */
+    void run() throws IOException {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                collect(watchService.take(), changed);
+
+                WatchKey next;
+                while ((next = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(next, changed);
+                }
+
+                Set<Path> stale = new LinkedHashSet<>();
+                for (Path file : changed) {
+                    boolean source = sourceOf(file) != null;
+                    Set<Path> dependents = library != null ? library.getDependents(file) : Set.of();
+                    if ((source || !dependents.isEmpty()) && contentChanged(file)) {
+                        if (source) {
+                            stale.add(key(file));
+                        }
+                        stale.addAll(dependents);
+                    }
+                }
+
+                for (Path file : stale) {
+                    recompile(file);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed from another thread: stop watching
+        }
+    }
+
+    private void collect(WatchKey watchKey, Set<Path> changed) throws IOException {
+        Path directory = directories.get(watchKey);
+
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost; fall back to hashing everything the sources match and every known member
+                for (BatchCompiler.Source source : sources) {
+                    changed.addAll(source.files());
+                }
+                if (library != null) {
+                    changed.addAll(library.getIncludedMembers());
+                }
+                continue;
+            }
+            if (directory == null) {
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                hashes.remove(key(path));
+            } else if (Files.isDirectory(path)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && isRecursivelyWatched(path)) {
+                    register(path, true);
+                    try (Stream<Path> walk = Files.walk(path)) {
+                        walk.filter(Files::isRegularFile).forEach(changed::add);
+                    }
+                }
+            } else {
+                changed.add(path);
+            }
+        }
+
+        if (!watchKey.reset()) {
+            directories.remove(watchKey);
+        }
+    }
+
+    /**
+     * Hashes a file and records the hash, returning whether it differs from the last one seen. A member seen for
+     * the first time counts as changed.
+     */
+    private boolean contentChanged(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        String hash = hash(file);
+        return hash != null && !hash.equals(hashes.put(key(file), hash));
+    }
+
+    /**
+     * Compiles a source copybook whose content or copied members changed.
+     */
+    private void recompile(Path file) {
+        BatchCompiler.Source source = sourceOf(file);
+        if (source == null || !Files.isRegularFile(file)) {
+            return;
+        }
+
+        BatchCompiler.Job job = new BatchCompiler.Job(file, BatchCompiler.outputFor(file, source.base(), outputDir));
+        BatchCompiler.Outcome outcome = compiler.compile(job);
+        if (outcome.succeeded()) {
+            out.printf("Updated %s -> %s (%.1f ms)%n", file, job.output(), outcome.nanos() / 1_000_000.0);
+        } else {
+            // Forget the hash so the next save is tried again even if it restores these bytes
+            hashes.remove(key(file));
+            out.printf("Failed %s: %s%n", file, outcome.error().getMessage());
+        }
+    }
+
+    private BatchCompiler.Source sourceOf(Path file) {
+        for (BatchCompiler.Source source : sources) {
+            if (source.accepts(file)) {
+                return source;
+            }
+        }
+        return null;
+    }
+
+    private boolean isRecursivelyWatched(Path directory) {
+        Path absolute = directory.toAbsolutePath().normalize();
+        for (BatchCompiler.Source source : sources) {
+            if (source.recursive() && absolute.startsWith(source.base().toAbsolutePath().normalize())) {
+                return true;
+            }
+        }
+        if (library != null) {
+            for (Path searchDirectory : library.getSearchPath()) {
+                if (absolute.startsWith(searchDirectory.toAbsolutePath().normalize())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void register(Path directory, boolean recursive) throws IOException {
+        if (!recursive) {
+            registerOne(directory);
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(directory)) {
+            for (Path subdirectory : walk.filter(Files::isDirectory).toList()) {
+                registerOne(subdirectory);
+            }
+        }
+    }
+
+    private void registerOne(Path directory) throws IOException {
+        WatchKey watchKey = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        directories.put(watchKey, directory);
+    }
+
+    private static Path key(Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    private static String hash(Path file) {
+        try {
+            return LayoutCache.contentHash(Files.readAllBytes(file));
+        } catch (IOException e) {
+            // Deleted or still being written; a later event will bring it back
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
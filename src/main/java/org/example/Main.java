@@ -1,11 +1,20 @@
 package org.example;
 
 import org.example.parser.CobolField;
+import org.example.parser.CopybookLibrary;
 import org.example.parser.CopybookParser;
+import org.example.parser.ParserOptions;
+import org.example.parser.record.CompiledLayout;
+import org.example.parser.record.LayoutSnapshot;
 import org.example.parser.util.FileUtils;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 public class Main {
 
@@ -29,6 +38,13 @@ public class Main {
                 System.exit(1);
             }
 
+            if (options.isBatch()) {
+                if (!runBatch(options)) {
+                    System.exit(1);
+                }
+                return;
+            }
+
             // Validate input file
             if (!FileUtils.isValidCopybookFile(options.inputFile)) {
                 System.err.println("Error: Invalid or non-existent copybook file: " + options.inputFile);
@@ -50,19 +66,16 @@ public class Main {
 
             // Parse the copybook
             Path copybookPath = Paths.get(options.inputFile);
-            CopybookParser parser = new CopybookParser();
+            CopybookParser parser = new CopybookParser(ParserOptions.defaults().withCompactOccurs(options.compactOccurs),
+                    options.copyLibrary());
             CopybookParser.ParseResult result = parser.parseCopybook(copybookPath);
 
-            // Generate JSON
-            String json;
-            if (options.prettyPrint) {
-                json = parser.toPrettyJson(result);
-            } else {
-                json = parser.toJson(result);
-            }
+            // Stream JSON to file
+            parser.saveJsonToFile(result, Paths.get(options.outputFile), options.prettyPrint);
 
-            // Save to file
-            FileUtils.writeJsonFile(json, options.outputFile);
+            if (options.snapshotFile != null) {
+                LayoutSnapshot.write(CompiledLayout.compile(result), Paths.get(options.snapshotFile));
+            }
 
             // Display results
             if (options.verbose) {
@@ -79,6 +92,9 @@ public class Main {
                     }
                 }
                 System.out.println("JSON saved to: " + options.outputFile);
+                if (options.snapshotFile != null) {
+                    System.out.println("Layout snapshot saved to: " + options.snapshotFile);
+                }
                 System.out.println("\nNote: 88-level condition names excluded from output for fixed-length file processing.");
             } else {
                 System.out.println("Successfully parsed " + options.inputFile + " -> " + options.outputFile);
@@ -106,6 +122,8 @@ public class Main {
                 case "-v", "--verbose" -> options.verbose = true;
                 case "-p", "--pretty" -> options.prettyPrint = true;
                 case "--no-pretty" -> options.prettyPrint = false;
+                case "--compact-occurs" -> options.compactOccurs = true;
+                case "-w", "--watch" -> options.watch = true;
                 case "-o", "--output" -> {
                     if (i + 1 < args.length) {
                         options.outputFile = args[++i];
@@ -113,13 +131,46 @@ public class Main {
                         throw new IllegalArgumentException("Option " + arg + " requires an argument");
                     }
                 }
+                case "-d", "--output-dir" -> {
+                    if (i + 1 < args.length) {
+                        options.outputDir = args[++i];
+                    } else {
+                        throw new IllegalArgumentException("Option " + arg + " requires an argument");
+                    }
+                }
+                case "-j", "--jobs" -> {
+                    if (i + 1 < args.length) {
+                        options.jobs = Integer.parseInt(args[++i]);
+                    } else {
+                        throw new IllegalArgumentException("Option " + arg + " requires an argument");
+                    }
+                }
+                case "-I", "--copy-path" -> {
+                    if (i + 1 < args.length) {
+                        for (String directory : args[++i].split(File.pathSeparator)) {
+                            if (!directory.isEmpty()) {
+                                options.copyPath.add(Paths.get(directory));
+                            }
+                        }
+                    } else {
+                        throw new IllegalArgumentException("Option " + arg + " requires an argument");
+                    }
+                }
+                case "--snapshot" -> {
+                    if (i + 1 < args.length) {
+                        options.snapshotFile = args[++i];
+                    } else {
+                        throw new IllegalArgumentException("Option " + arg + " requires an argument");
+                    }
+                }
                 default -> {
                     if (arg.startsWith("-")) {
                         throw new IllegalArgumentException("Unknown option: " + arg);
-                    } else if (options.inputFile == null) {
-                        options.inputFile = arg;
                     } else {
-                        throw new IllegalArgumentException("Multiple input files not supported: " + arg);
+                        if (options.inputFile == null) {
+                            options.inputFile = arg;
+                        }
+                        options.inputs.add(arg);
                     }
                 }
             }
@@ -128,6 +179,93 @@ public class Main {
         return options;
     }
 
+    /**
+     * Parses every copybook matched by the inputs concurrently and prints per-file timings and a summary.
+     * In watch mode it then keeps re-parsing changed copybooks until interrupted. Returns false when any
+     * copybook of the initial run failed.
+     */
+    private static boolean runBatch(CliOptions options) throws Exception {
+        if (options.outputFile != null || options.snapshotFile != null) {
+            throw new IllegalArgumentException("Options -o and --snapshot take a single input file; use --output-dir in batch mode");
+        }
+
+        Path outputDir = options.outputDir != null ? Paths.get(options.outputDir) : null;
+        List<BatchCompiler.Source> sources = new ArrayList<>();
+        for (String input : options.inputs) {
+            sources.add(BatchCompiler.source(input));
+        }
+        List<BatchCompiler.Job> jobs = BatchCompiler.plan(sources, outputDir);
+        if (jobs.isEmpty() && !options.watch) {
+            System.err.println("Error: No copybooks found in " + String.join(", ", options.inputs));
+            return false;
+        }
+
+        if (options.verbose) {
+            System.out.println("COBOL Copybook Parser v1.0.0");
+            System.out.println("Parsing " + jobs.size() + " copybooks with up to " + options.jobs + " in parallel...");
+        }
+
+        BatchCompiler compiler = new BatchCompiler(
+                ParserOptions.defaults().withCompactOccurs(options.compactOccurs), options.copyLibrary(),
+                options.prettyPrint, options.jobs);
+
+        // Start watching before the initial run so that edits made during it are not missed
+        CopybookWatcher watcher = null;
+        if (options.watch) {
+            watcher = new CopybookWatcher(sources, outputDir, compiler, System.out);
+            watcher.seed(jobs);
+        }
+
+        long start = System.nanoTime();
+        List<BatchCompiler.Outcome> outcomes = compiler.run(jobs);
+        long elapsed = System.nanoTime() - start;
+
+        List<BatchCompiler.Outcome> failures = new ArrayList<>();
+        long parseNanos = 0;
+        for (BatchCompiler.Outcome outcome : outcomes) {
+            parseNanos += outcome.nanos();
+            if (!outcome.succeeded()) {
+                failures.add(outcome);
+            }
+            if (options.verbose) {
+                System.out.printf("  %-4s %8.1f ms  %s -> %s%n", outcome.succeeded() ? "OK" : "FAIL",
+                        millis(outcome.nanos()), outcome.job().input(), outcome.job().output());
+            }
+        }
+
+        System.out.println();
+        System.out.printf("Parsed %d of %d copybooks in %.1f ms (%.1f ms of parsing, %.2f ms per file)%n",
+                outcomes.size() - failures.size(), outcomes.size(), millis(elapsed), millis(parseNanos),
+                millis(parseNanos) / Math.max(1, outcomes.size()));
+
+        List<BatchCompiler.Outcome> slowest = new ArrayList<>(outcomes);
+        slowest.sort(Comparator.comparingLong(BatchCompiler.Outcome::nanos).reversed());
+        System.out.println("Slowest:");
+        for (BatchCompiler.Outcome outcome : slowest.subList(0, Math.min(5, slowest.size()))) {
+            System.out.printf("  %8.1f ms  %s%n", millis(outcome.nanos()), outcome.job().input());
+        }
+
+        if (!failures.isEmpty()) {
+            System.out.println("Failed (" + failures.size() + "):");
+            for (BatchCompiler.Outcome failure : failures) {
+                System.out.println("  " + failure.job().input() + ": " + failure.error().getMessage());
+            }
+        }
+
+        if (watcher != null) {
+            System.out.println();
+            System.out.println("Watching " + String.join(", ", options.inputs) + " for changes (Ctrl+C to stop)...");
+            try (CopybookWatcher running = watcher) {
+                running.run();
+            }
+        }
+        return failures.isEmpty();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
     private static void showHelp() {
         System.out.println("Usage: copybook-parser [OPTIONS] <input-file>");
         System.out.println();
@@ -135,12 +273,26 @@ public class Main {
         System.out.println();
         System.out.println("Arguments:");
         System.out.println("  <input-file>              Input copybook file path");
+        System.out.println("                            Several files, directories or glob patterns switch");
+        System.out.println("                            to batch mode");
         System.out.println();
         System.out.println("Options:");
         System.out.println("  -o, --output <file>       Output JSON file path (default: <input>.json)");
+        System.out.println("  -d, --output-dir <dir>    Batch mode: write JSON files below this directory");
+        System.out.println("                            (default: next to each copybook)");
+        System.out.println("  -j, --jobs <n>            Batch mode: copybooks parsed at the same time");
+        System.out.println("                            (default: number of processors)");
+        System.out.println("  -w, --watch               Batch mode: keep running and re-parse copybooks whose");
+        System.out.println("                            content, or a COPY member they copy, changes");
         System.out.println("  -v, --verbose             Enable verbose output");
         System.out.println("  -p, --pretty              Pretty print JSON output (default: true)");
         System.out.println("      --no-pretty           Disable pretty printing");
+        System.out.println("      --compact-occurs      Describe OCCURS tables once with a stride instead of");
+        System.out.println("                            expanding every occurrence");
+        System.out.println("  -I, --copy-path <dirs>    Directories searched for COPY members, separated by");
+        System.out.println("                            '" + File.pathSeparator + "'; may be repeated");
+        System.out.println("      --snapshot <file>     Also write the compiled layouts as a binary snapshot");
+        System.out.println("                            for fast loading by decoding jobs");
         System.out.println("  -h, --help                Show this help message and exit");
         System.out.println("  -V, --version             Show version information and exit");
         System.out.println();
@@ -151,6 +303,10 @@ public class Main {
         System.out.println("  copybook-parser customer.cbl");
         System.out.println("  copybook-parser customer.cbl -o output.json");
         System.out.println("  copybook-parser customer.cbl -v");
+        System.out.println("  copybook-parser copybooks/ -d json/");
+        System.out.println("  copybook-parser 'copybooks/*.cpy' -j 8");
+        System.out.println("  copybook-parser copybooks/ -d json/ --watch");
+        System.out.println("  copybook-parser account.cbl -I copylib");
     }
 
     private static void showUsage() {
@@ -175,10 +331,29 @@ public class Main {
     // Inner class to hold CLI options
     private static class CliOptions {
         String inputFile;
+        List<String> inputs = new ArrayList<>();
+        String outputDir;
+        int jobs = Runtime.getRuntime().availableProcessors();
         String outputFile;
+        String snapshotFile;
+        List<Path> copyPath = new ArrayList<>();
         boolean verbose = false;
         boolean prettyPrint = true;
+        boolean compactOccurs = false;
+        boolean watch = false;
         boolean showHelp = false;
         boolean showVersion = false;
+
+        /**
+         * Returns the library for COPY statements, or null when no copy path was given.
+         */
+        CopybookLibrary copyLibrary() {
+            return copyPath.isEmpty() ? null : new CopybookLibrary(copyPath);
+        }
+
+        boolean isBatch() {
+            return inputs.size() > 1 || outputDir != null || watch || BatchCompiler.isGlob(inputFile)
+                    || Files.isDirectory(Paths.get(inputFile));
+        }
     }
 }
@@ -1,8 +1,10 @@
 package org.example.parser;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class CobolField {
@@ -32,6 +34,12 @@ public class CobolField {
     @JsonProperty("usage")
     private String usage;
 
+    @JsonIgnore
+    private CobolUsage usageType = CobolUsage.DISPLAY;
+
+    @JsonIgnore
+    private int digits;
+
     @JsonProperty("signed")
     private boolean signed;
 
@@ -41,9 +49,21 @@ public class CobolField {
     @JsonProperty("decimalPlaces")
     private int decimalPlaces;
 
+    @JsonProperty("signLeading")
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean signLeading;
+
+    @JsonProperty("signSeparate")
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean signSeparate;
+
     @JsonProperty("occursCount")
     private int occursCount;
 
+    @JsonProperty("occursStride")
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private int occursStride;
+
     @JsonProperty("redefines")
     @JsonInclude(JsonInclude.Include.NON_NULL)
     private String redefines;
@@ -68,6 +88,23 @@ public class CobolField {
     @JsonInclude(JsonInclude.Include.NON_NULL)
     private Integer arrayIndex;
 
+    // Characters the PICTURE describes, the DISPLAY storage length before any SIGN SEPARATE byte
+    @JsonIgnore
+    private int pictureLength;
+
+    // Memoized byte lengths, -1 until computed; reset by the mutators they depend on and on every enclosing group
+    @JsonIgnore
+    private int storageLength = -1;
+
+    @JsonIgnore
+    private int groupLength = -1;
+
+    @JsonIgnore
+    private CobolField parent;
+
+    @JsonIgnore
+    private boolean frozen;
+
     public CobolField() {
         this.children = new ArrayList<>();
         this.arrayElements = new ArrayList<>();
@@ -96,6 +133,9 @@ public class CobolField {
         @JsonProperty("fields")
         private List<FieldPosition> fields;
 
+        @JsonIgnore
+        private boolean frozen;
+
         public ArrayElement(int index, int startPosition, int length) {
             this.index = index;
             this.startPosition = startPosition;
@@ -105,15 +145,29 @@ public class CobolField {
         }
 
         public int getIndex() { return index; }
-        public void setIndex(int index) { this.index = index; }
+        public void setIndex(int index) { checkMutable(); this.index = index; }
         public int getStartPosition() { return startPosition; }
-        public void setStartPosition(int startPosition) { this.startPosition = startPosition; }
+        public void setStartPosition(int startPosition) { checkMutable(); this.startPosition = startPosition; }
         public int getEndPosition() { return endPosition; }
-        public void setEndPosition(int endPosition) { this.endPosition = endPosition; }
+        public void setEndPosition(int endPosition) { checkMutable(); this.endPosition = endPosition; }
         public int getLength() { return length; }
-        public void setLength(int length) { this.length = length; }
+        public void setLength(int length) { checkMutable(); this.length = length; }
         public List<FieldPosition> getFields() { return fields; }
-        public void setFields(List<FieldPosition> fields) { this.fields = fields; }
+        public void setFields(List<FieldPosition> fields) { checkMutable(); this.fields = fields; }
+
+        void freeze() {
+            if (!frozen) {
+                fields.forEach(FieldPosition::freeze);
+                fields = List.copyOf(fields);
+                frozen = true;
+            }
+        }
+
+        private void checkMutable() {
+            if (frozen) {
+                throw new IllegalStateException("Array element " + index + " is frozen");
+            }
+        }
     }
 
     public static class FieldPosition {
@@ -140,6 +194,12 @@ public class CobolField {
         @JsonProperty("usage")
         private String usage;
 
+        @JsonIgnore
+        private CobolField source;
+
+        @JsonIgnore
+        private boolean frozen;
+
         public FieldPosition(String name, int startPosition, int length, String picture, String dataType, String usage) {
             this.name = name;
             this.startPosition = startPosition;
@@ -151,19 +211,35 @@ public class CobolField {
         }
 
         public String getName() { return name; }
-        public void setName(String name) { this.name = name; }
+        public void setName(String name) { checkMutable(); this.name = name; }
         public int getStartPosition() { return startPosition; }
-        public void setStartPosition(int startPosition) { this.startPosition = startPosition; }
+        public void setStartPosition(int startPosition) { checkMutable(); this.startPosition = startPosition; }
         public int getEndPosition() { return endPosition; }
-        public void setEndPosition(int endPosition) { this.endPosition = endPosition; }
+        public void setEndPosition(int endPosition) { checkMutable(); this.endPosition = endPosition; }
         public int getLength() { return length; }
-        public void setLength(int length) { this.length = length; }
+        public void setLength(int length) { checkMutable(); this.length = length; }
         public String getPicture() { return picture; }
-        public void setPicture(String picture) { this.picture = picture; }
+        public void setPicture(String picture) { checkMutable(); this.picture = picture; }
         public String getDataType() { return dataType; }
-        public void setDataType(String dataType) { this.dataType = dataType; }
+        public void setDataType(String dataType) { checkMutable(); this.dataType = dataType; }
         public String getUsage() { return usage; }
-        public void setUsage(String usage) { this.usage = usage; }
+        public void setUsage(String usage) { checkMutable(); this.usage = usage; }
+        public CobolField getSource() { return source; }
+        public void setSource(CobolField source) { checkMutable(); this.source = source; }
+
+        void freeze() {
+            // Expanded OCCURS entries are only reachable through their source, so it is frozen from here
+            if (source != null) {
+                source.freeze();
+            }
+            frozen = true;
+        }
+
+        private void checkMutable() {
+            if (frozen) {
+                throw new IllegalStateException("Field position " + name + " is frozen");
+            }
+        }
     }
 
     public static class ConditionName {
@@ -184,25 +260,28 @@ public class CobolField {
 
     // All getters and setters
     public int getLevel() { return level; }
-    public void setLevel(int level) { this.level = level; }
+    public void setLevel(int level) { checkMutable(); this.level = level; }
 
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { checkMutable(); this.name = name; }
 
     public String getPicture() { return picture; }
     public void setPicture(String picture) {
+        checkMutable();
         this.picture = picture;
         analyzePicture();
+        invalidateLengths();
     }
 
     public int getStartPosition() { return startPosition; }
-    public void setStartPosition(int startPosition) { this.startPosition = startPosition; }
+    public void setStartPosition(int startPosition) { checkMutable(); this.startPosition = startPosition; }
 
     public int getEndPosition() { return endPosition; }
-    public void setEndPosition(int endPosition) { this.endPosition = endPosition; }
+    public void setEndPosition(int endPosition) { checkMutable(); this.endPosition = endPosition; }
 
     public int getLength() { return length; }
     public void setLength(int length) {
+        checkMutable();
         this.length = length;
         if (this.startPosition > 0) {
             this.endPosition = this.startPosition + length - 1;
@@ -210,48 +289,257 @@ public class CobolField {
     }
 
     public String getDataType() { return dataType; }
-    public void setDataType(String dataType) { this.dataType = dataType; }
+    public void setDataType(String dataType) { checkMutable(); this.dataType = dataType; }
 
     public String getUsage() { return usage; }
-    public void setUsage(String usage) { this.usage = usage; }
+    public void setUsage(String usage) { checkMutable(); this.usage = usage; }
+
+    public CobolUsage getUsageType() { return usageType; }
+    public void setUsageType(CobolUsage usageType) {
+        checkMutable();
+        this.usageType = usageType;
+        invalidateLengths();
+    }
+
+    public int getDigits() { return digits; }
+
+    /**
+     * Returns the bytes one occurrence of this item takes in a record: the size implied by USAGE and PICTURE for
+     * an elementary item, the group length otherwise. The value is computed once and kept until the picture,
+     * usage or sign changes; the length set by the parser is an output and does not affect it.
+     */
+    @JsonIgnore
+    public int getStorageLength() {
+        if (!isElementary()) {
+            return getGroupLength();
+        }
+        if (storageLength < 0) {
+            storageLength = switch (usageType) {
+                case COMPUTATIONAL_3, PACKED_DECIMAL -> countDigits(picture) / 2 + 1;
+                case COMPUTATIONAL, COMPUTATIONAL_4, COMPUTATIONAL_5, BINARY -> {
+                    int totalDigits = countDigits(picture);
+                    if (totalDigits <= 4) yield 2;
+                    else if (totalDigits <= 9) yield 4;
+                    else yield 8;
+                }
+                case COMPUTATIONAL_1 -> 4;
+                case COMPUTATIONAL_2 -> 8;
+                default -> signSeparate ? digits + 1 : Math.max(pictureLength, 1);
+            };
+        }
+        return storageLength;
+    }
+
+    /**
+     * Returns the summed storage length of the children, each counted once per occurrence so that nested OCCURS
+     * tables take their full size, computed once the children are final and cached on every group of the
+     * subtree, so enclosing groups and OCCURS tables never walk the same subtree twice. An expanded OCCURS table,
+     * whose children have moved into array elements, reports the length of one element.
+     * Any change to a descendant's picture, usage, sign, OCCURS count or children resets the cached value on
+     * every group up to the root.
+     */
+    @JsonIgnore
+    public int getGroupLength() {
+        if (groupLength < 0) {
+            int total = 0;
+            for (CobolField child : children) {
+                total += child.getStorageLength() * Math.max(child.getOccursCount(), 1);
+            }
+            if (children.isEmpty() && !arrayElements.isEmpty()) {
+                total = arrayElements.get(0).getLength();
+            }
+            groupLength = total;
+        }
+        return groupLength;
+    }
+
+    @JsonIgnore
+    public boolean isElementary() {
+        return picture != null || usageType == CobolUsage.COMPUTATIONAL_1 || usageType == CobolUsage.COMPUTATIONAL_2;
+    }
 
     public boolean isSigned() { return signed; }
-    public void setSigned(boolean signed) { this.signed = signed; }
+    public void setSigned(boolean signed) { checkMutable(); this.signed = signed; }
 
     public boolean isDecimal() { return decimal; }
-    public void setDecimal(boolean decimal) { this.decimal = decimal; }
+    public void setDecimal(boolean decimal) { checkMutable(); this.decimal = decimal; }
 
     public int getDecimalPlaces() { return decimalPlaces; }
-    public void setDecimalPlaces(int decimalPlaces) { this.decimalPlaces = decimalPlaces; }
+    public void setDecimalPlaces(int decimalPlaces) { checkMutable(); this.decimalPlaces = decimalPlaces; }
+
+    public boolean isSignLeading() { return signLeading; }
+    public void setSignLeading(boolean signLeading) { checkMutable(); this.signLeading = signLeading; }
+
+    public boolean isSignSeparate() { return signSeparate; }
+    public void setSignSeparate(boolean signSeparate) {
+        checkMutable();
+        this.signSeparate = signSeparate;
+        invalidateLengths();
+    }
 
     public int getOccursCount() { return occursCount; }
-    public void setOccursCount(int occursCount) { this.occursCount = occursCount; }
+    public void setOccursCount(int occursCount) {
+        checkMutable();
+        this.occursCount = occursCount;
+        invalidateLengths();
+    }
+
+    public int getOccursStride() { return occursStride; }
+    public void setOccursStride(int occursStride) { checkMutable(); this.occursStride = occursStride; }
+
+    /**
+     * Returns true for an OCCURS table parsed in compact mode, whose children describe the first occurrence only.
+     */
+    @JsonIgnore
+    public boolean isCompactOccurs() {
+        return occursStride > 0 && arrayElements.isEmpty();
+    }
+
+    /**
+     * Returns the start position of occurrence {@code index} (1-based) of a compact OCCURS table.
+     */
+    public int getOccurrenceStart(int index) {
+        return startPosition + (index - 1) * occursStride;
+    }
+
+    /**
+     * Expands a compact OCCURS table into the per-occurrence array elements that the default parser mode
+     * produces, without modifying this field.
+     */
+    public List<ArrayElement> expandArrayElements() {
+        if (!isCompactOccurs()) {
+            return arrayElements;
+        }
+
+        List<ArrayElement> elements = new ArrayList<>(occursCount);
+        for (int i = 1; i <= occursCount; i++) {
+            ArrayElement element = new ArrayElement(i, getOccurrenceStart(i), occursStride);
+            if (isElementary()) {
+                addExpandedPosition(this, name, element, (i - 1) * occursStride);
+            } else {
+                addExpandedPositions(children, element, (i - 1) * occursStride, "");
+            }
+            elements.add(element);
+        }
+        return elements;
+    }
+
+    /**
+     * Adds the elementary fields of one occurrence, naming fields of nested tables with their own subscripts
+     * as the default parser mode does.
+     */
+    private static void addExpandedPositions(List<CobolField> fields, ArrayElement element, int shift,
+                                             String subscripts) {
+        for (CobolField field : fields) {
+            if (field.isCompactOccurs()) {
+                for (int i = 1; i <= field.getOccursCount(); i++) {
+                    String nested = subscripts.isEmpty() ? String.valueOf(i) : subscripts + "," + i;
+                    int nestedShift = shift + (i - 1) * field.getOccursStride();
+                    if (field.isElementary()) {
+                        addExpandedPosition(field, field.getName() + "(" + nested + ")", element, nestedShift);
+                    } else {
+                        addExpandedPositions(field.getChildren(), element, nestedShift, nested);
+                    }
+                }
+            } else if (field.isElementary()) {
+                String name = subscripts.isEmpty() ? field.getName() : field.getName() + "(" + subscripts + ")";
+                addExpandedPosition(field, name, element, shift);
+            } else {
+                addExpandedPositions(field.getChildren(), element, shift, subscripts);
+            }
+        }
+    }
+
+    private static void addExpandedPosition(CobolField field, String name, ArrayElement element, int shift) {
+        FieldPosition position = new FieldPosition(name, field.getStartPosition() + shift, field.getLength(),
+                field.getPicture(), field.getDataType(), field.getUsage());
+        position.setSource(field);
+        element.getFields().add(position);
+    }
 
     public String getRedefines() { return redefines; }
-    public void setRedefines(String redefines) { this.redefines = redefines; }
+    public void setRedefines(String redefines) { checkMutable(); this.redefines = redefines; }
 
     public String getValue() { return value; }
-    public void setValue(String value) { this.value = value; }
-
-    public List<CobolField> getChildren() { return children; }
-    public void setChildren(List<CobolField> children) { this.children = children; }
+    public void setValue(String value) { checkMutable(); this.value = value; }
+
+    /**
+     * Returns a read-only view of the children; use {@link #addChild} or {@link #setChildren} to change them, so
+     * the memoized lengths of this group and its ancestors are reset.
+     */
+    public List<CobolField> getChildren() { return Collections.unmodifiableList(children); }
+    public void setChildren(List<CobolField> children) {
+        checkMutable();
+        this.children = new ArrayList<>(children);
+        this.children.forEach(child -> child.parent = this);
+        invalidateLengths();
+    }
 
     public void addChild(CobolField child) {
+        checkMutable();
         this.children.add(child);
+        child.parent = this;
+        invalidateLengths();
     }
 
     public List<ArrayElement> getArrayElements() { return arrayElements; }
-    public void setArrayElements(List<ArrayElement> arrayElements) { this.arrayElements = arrayElements; }
+    public void setArrayElements(List<ArrayElement> arrayElements) {
+        checkMutable();
+        this.arrayElements = arrayElements;
+        invalidateLengths();
+    }
 
     public List<ConditionName> getConditionNames() { return conditionNames; }
-    public void setConditionNames(List<ConditionName> conditionNames) { this.conditionNames = conditionNames; }
+    public void setConditionNames(List<ConditionName> conditionNames) { checkMutable(); this.conditionNames = conditionNames; }
 
     public void addConditionName(String name, String value) {
+        checkMutable();
         this.conditionNames.add(new ConditionName(name, value));
     }
 
     public Integer getArrayIndex() { return arrayIndex; }
-    public void setArrayIndex(Integer arrayIndex) { this.arrayIndex = arrayIndex; }
+    public void setArrayIndex(Integer arrayIndex) { checkMutable(); this.arrayIndex = arrayIndex; }
+
+    /**
+     * Makes this field and its whole subtree read-only: lists become unmodifiable, setters throw
+     * IllegalStateException and the memoized lengths are computed up front, so a frozen tree can be shared
+     * between threads without copying.
+     */
+    public CobolField freeze() {
+        if (!frozen) {
+            getStorageLength();
+            getGroupLength();
+            // Flagged first: the positions of an elementary table point back at this field
+            frozen = true;
+            children.forEach(CobolField::freeze);
+            arrayElements.forEach(ArrayElement::freeze);
+            children = List.copyOf(children);
+            arrayElements = List.copyOf(arrayElements);
+            conditionNames = List.copyOf(conditionNames);
+        }
+        return this;
+    }
+
+    @JsonIgnore
+    public boolean isFrozen() { return frozen; }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new IllegalStateException("Field " + name + " is frozen");
+        }
+    }
+
+    /**
+     * Resets the memoized lengths of this field and of every enclosing group. A group's cached length implies its
+     * ancestors cached theirs after it, so the walk stops at the first group that has nothing cached.
+     */
+    private void invalidateLengths() {
+        storageLength = -1;
+        groupLength = -1;
+        for (CobolField group = parent; group != null && group.groupLength >= 0; group = group.parent) {
+            group.groupLength = -1;
+        }
+    }
 
     private void analyzePicture() {
         if (picture == null) {
@@ -280,7 +568,9 @@ public class CobolField {
             this.dataType = "STRING";
         }
 
-        this.length = calculatePictureLength(pic);
+        this.pictureLength = calculatePictureLength(pic);
+        this.length = pictureLength;
+        this.digits = "NUMBER".equals(dataType) ? length : 0;
     }
 
     private int extractLength(String picturePart) {
@@ -326,4 +616,34 @@ public class CobolField {
 
         return totalLength > 0 ? totalLength : 1;
     }
+
+    private static int countDigits(String picture) {
+        if (picture == null) return 0;
+
+        int totalDigits = 0;
+        String pic = picture.toUpperCase().replaceAll("\\s+", "");
+        pic = pic.replace("S", "").replace("V", "");
+
+        while (pic.contains("9(")) {
+            int start = pic.indexOf("9(");
+            int end = pic.indexOf(")", start);
+            if (end != -1) {
+                try {
+                    int count = Integer.parseInt(pic.substring(start + 2, end));
+                    totalDigits += count;
+                    pic = pic.substring(0, start) + pic.substring(end + 1);
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            } else {
+                break;
+            }
+        }
+
+        for (char c : pic.toCharArray()) {
+            if (c == '9') totalDigits++;
+        }
+
+        return totalDigits;
+    }
 }
@@ -0,0 +1,382 @@
+package org.example.parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves and caches the members named by COPY statements. Members are looked up in the directories of the
+ * search path, trying the name as written, in lower case, and with the usual copybook extensions; {@code COPY x
+ * OF lib} also tries a {@code lib} subdirectory first.
+ *
+ * <p>Each member is read, split into statements and tokenized once. Later COPY statements reuse the cached
+ * tokens directly, and a REPLACING phrase is applied to the cached words of each statement, so only statements it
+ * actually changes are tokenized again. A cached member is re-read only when its size or modification time
+ * changes. One library can be shared by any number of parsers and threads.
+ *
+ * <p>The library also remembers which members each copybook parsed from a file copied, directly or through
+ * nested COPY statements, so that a tool watching the files can tell which copybooks an edited member affects.
+ */
+public final class CopybookLibrary {
+    private static final List<String> EXTENSIONS = List.of("", ".cpy", ".CPY", ".cbl", ".CBL", ".cob", ".COB", ".copy");
+
+    private record Statement(List<String> words, CopybookTokenizer.Token token) {
+    }
+
+    private record Member(Path path, FileTime modified, long size, List<Statement> statements) {
+    }
+
+    private record Replacement(List<String> pattern, List<String> replacement, Mode mode) {
+    }
+
+    private enum Mode { WORDS, LEADING, TRAILING, PARTIAL }
+
+    private final List<Path> searchPath;
+    private final ConcurrentMap<String, Path> resolved = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Path, Member> members = new ConcurrentHashMap<>();
+    private final Map<Path, Set<Path>> includes = new HashMap<>();
+    private final Map<Path, Set<Path>> dependents = new HashMap<>();
+
+    public CopybookLibrary(List<Path> searchPath) {
+        this.searchPath = List.copyOf(searchPath);
+    }
+
+    public List<Path> getSearchPath() { return searchPath; }
+
+    /**
+     * Returns how many members are currently cached.
+     */
+    public int getCachedMemberCount() { return members.size(); }
+
+    /**
+     * Returns the copybooks whose last parse copied {@code member}, directly or through nested COPY statements.
+     */
+    public synchronized Set<Path> getDependents(Path member) {
+        Set<Path> copybooks = dependents.get(member.toAbsolutePath().normalize());
+        return copybooks == null ? Set.of() : Set.copyOf(copybooks);
+    }
+
+    /**
+     * Returns every member copied by the last parse of any copybook.
+     */
+    public synchronized Set<Path> getIncludedMembers() {
+        return Set.copyOf(dependents.keySet());
+    }
+
+    /**
+     * Records the members the latest parse of {@code copybook} copied, replacing those of earlier parses.
+     */
+    synchronized void recordIncludes(Path copybook, Set<Path> copied) {
+        Path key = copybook.toAbsolutePath().normalize();
+        Set<Path> previous = includes.remove(key);
+        if (previous != null) {
+            for (Path member : previous) {
+                Set<Path> copybooks = dependents.get(member);
+                copybooks.remove(key);
+                if (copybooks.isEmpty()) {
+                    dependents.remove(member);
+                }
+            }
+        }
+        if (copied.isEmpty()) {
+            return;
+        }
+
+        includes.put(key, Set.copyOf(copied));
+        for (Path member : copied) {
+            dependents.computeIfAbsent(member, m -> new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * Expands one COPY statement into {@code tokens}, including members it copies in turn, and adds the path of
+     * every member read to {@code copied}.
+     */
+    void expand(String copyStatement, List<CopybookTokenizer.Token> tokens, Set<Path> copied) throws IOException {
+        expand(CopybookTokenizer.splitWords(copyStatement), tokens, new ArrayDeque<>(), copied);
+    }
+
+    private void expand(List<String> copyWords, List<CopybookTokenizer.Token> tokens, Deque<Path> including,
+                        Set<Path> copied) throws IOException {
+        if (copyWords.size() < 2) {
+            throw new IOException("COPY statement without a member name");
+        }
+
+        String memberName = CopybookTokenizer.unquote(copyWords.get(1));
+        int index = 2;
+        String libraryName = null;
+        if (index + 1 < copyWords.size() && (copyWords.get(index).equalsIgnoreCase("OF") ||
+                copyWords.get(index).equalsIgnoreCase("IN"))) {
+            libraryName = CopybookTokenizer.unquote(copyWords.get(index + 1));
+            index += 2;
+        }
+        if (index < copyWords.size() && copyWords.get(index).equalsIgnoreCase("SUPPRESS")) {
+            index++;
+        }
+        List<Replacement> replacing = List.of();
+        if (index < copyWords.size() && copyWords.get(index).equalsIgnoreCase("REPLACING")) {
+            replacing = parseReplacing(copyWords, index + 1);
+        }
+
+        Member member = load(memberName, libraryName);
+        copied.add(member.path());
+        if (including.contains(member.path())) {
+            throw new IOException("Recursive COPY of " + member.path());
+        }
+
+        including.push(member.path());
+        for (Statement statement : member.statements()) {
+            if (statement.token() == null) {
+                // A nested COPY brings its own REPLACING phrase
+                expand(statement.words(), tokens, including, copied);
+                continue;
+            }
+
+            List<String> words = replace(statement.words(), replacing);
+            tokens.add(words == statement.words()
+                    ? statement.token()
+                    : new CopybookTokenizer.Token(String.join(" ", words) + ".", words));
+        }
+        including.pop();
+    }
+
+    private Member load(String memberName, String libraryName) throws IOException {
+        Path path = resolve(memberName, libraryName);
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+        Member member = members.get(path);
+        if (member != null && member.size() == attributes.size() &&
+                member.modified().equals(attributes.lastModifiedTime())) {
+            return member;
+        }
+
+        List<Statement> statements = new ArrayList<>();
+        CopybookTokenizer.forEachStatement(Files.readAllLines(path), text -> {
+            List<String> words = CopybookTokenizer.splitWords(text);
+            CopybookTokenizer.Token token = CopybookTokenizer.isCopyStatement(text)
+                    ? null
+                    : new CopybookTokenizer.Token(text.trim(), words);
+            statements.add(new Statement(List.copyOf(words), token));
+        });
+
+        member = new Member(path, attributes.lastModifiedTime(), attributes.size(), List.copyOf(statements));
+        members.put(path, member);
+        return member;
+    }
+
+    private Path resolve(String memberName, String libraryName) throws IOException {
+        String key = libraryName == null ? memberName : libraryName + "/" + memberName;
+        Path path = resolved.get(key);
+        if (path == null) {
+            // Misses are not cached, so a member added later is still found
+            path = find(memberName, libraryName)
+                    .orElseThrow(() -> new IOException("Copybook member " + key + " not found in " + searchPath));
+            resolved.putIfAbsent(key, path);
+        }
+        return path;
+    }
+
+    private Optional<Path> find(String memberName, String libraryName) {
+        List<String> names = memberName.equals(memberName.toLowerCase(Locale.ROOT))
+                ? List.of(memberName)
+                : List.of(memberName, memberName.toLowerCase(Locale.ROOT));
+
+        for (Path directory : searchPath) {
+            List<Path> candidates = new ArrayList<>(2);
+            if (libraryName != null) {
+                candidates.add(directory.resolve(libraryName));
+                candidates.add(directory.resolve(libraryName.toLowerCase(Locale.ROOT)));
+            }
+            candidates.add(directory);
+
+            for (Path candidate : candidates) {
+                for (String name : names) {
+                    for (String extension : EXTENSIONS) {
+                        Path file = candidate.resolve(name + extension);
+                        if (Files.isRegularFile(file)) {
+                            return Optional.of(file.toAbsolutePath().normalize());
+                        }
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Parses the operand pairs of a REPLACING phrase starting at {@code index}.
+     */
+    private static List<Replacement> parseReplacing(List<String> words, int index) throws IOException {
+        List<Replacement> replacements = new ArrayList<>();
+        int[] position = {index};
+
+        while (position[0] < words.size()) {
+            Mode mode = Mode.WORDS;
+            String first = words.get(position[0]);
+            if (first.equalsIgnoreCase("LEADING") || first.equalsIgnoreCase("TRAILING")) {
+                mode = first.equalsIgnoreCase("LEADING") ? Mode.LEADING : Mode.TRAILING;
+                position[0]++;
+            }
+
+            List<String> pattern = readOperand(words, position);
+            if (position[0] >= words.size() || !words.get(position[0]).equalsIgnoreCase("BY")) {
+                throw new IOException("Expected BY in REPLACING phrase: " + String.join(" ", words));
+            }
+            position[0]++;
+            List<String> replacement = readOperand(words, position);
+
+            if (pattern.isEmpty()) {
+                throw new IOException("Empty REPLACING operand: " + String.join(" ", words));
+            }
+            if (mode == Mode.WORDS && pattern.size() == 1 && isTag(pattern.get(0))) {
+                // :TAG: placeholders are replaced wherever they occur inside a word
+                mode = Mode.PARTIAL;
+            }
+            replacements.add(new Replacement(pattern, replacement, mode));
+        }
+        return replacements;
+    }
+
+    /**
+     * Reads a pseudo-text ({@code ==...==}) or single-word operand and advances {@code position} past it.
+     */
+    private static List<String> readOperand(List<String> words, int[] position) throws IOException {
+        if (position[0] >= words.size()) {
+            throw new IOException("Incomplete REPLACING phrase: " + String.join(" ", words));
+        }
+
+        String word = words.get(position[0]++);
+        if (!word.startsWith("==")) {
+            return List.of(word);
+        }
+
+        StringBuilder text = new StringBuilder(word);
+        while (text.length() < 4 || !text.toString().endsWith("==")) {
+            if (position[0] >= words.size()) {
+                throw new IOException("Unterminated pseudo-text in REPLACING phrase: " + String.join(" ", words));
+            }
+            text.append(' ').append(words.get(position[0]++));
+        }
+        return CopybookTokenizer.splitWords(text.substring(2, text.length() - 2));
+    }
+
+    private static boolean isTag(String word) {
+        return word.length() > 2 && word.charAt(0) == ':' && word.charAt(word.length() - 1) == ':';
+    }
+
+    /**
+     * Applies the replacements to a statement's words, returning the same list when nothing matched.
+     */
+    private static List<String> replace(List<String> words, List<Replacement> replacements) {
+        if (replacements.isEmpty()) {
+            return words;
+        }
+
+        List<String> result = null;
+        int i = 0;
+        while (i < words.size()) {
+            int consumed = 0;
+            List<String> output = null;
+
+            for (Replacement replacement : replacements) {
+                String word = words.get(i);
+                String pattern = replacement.pattern().get(0);
+                switch (replacement.mode()) {
+                    case WORDS -> {
+                        if (matches(words, i, replacement.pattern())) {
+                            consumed = replacement.pattern().size();
+                            output = replacement.replacement();
+                        }
+                    }
+                    case LEADING -> {
+                        if (word.length() > pattern.length() && word.regionMatches(true, 0, pattern, 0, pattern.length())) {
+                            consumed = 1;
+                            output = List.of(join(replacement.replacement()) + word.substring(pattern.length()));
+                        }
+                    }
+                    case TRAILING -> {
+                        int start = word.length() - pattern.length();
+                        if (start > 0 && word.regionMatches(true, start, pattern, 0, pattern.length())) {
+                            consumed = 1;
+                            output = List.of(word.substring(0, start) + join(replacement.replacement()));
+                        }
+                    }
+                    case PARTIAL -> {
+                        if (word.toUpperCase(Locale.ROOT).contains(pattern.toUpperCase(Locale.ROOT))) {
+                            consumed = 1;
+                            output = List.of(replaceIgnoreCase(word, pattern, join(replacement.replacement())));
+                        }
+                    }
+                }
+                if (output != null) {
+                    break;
+                }
+            }
+
+            if (output == null) {
+                if (result != null) {
+                    result.add(words.get(i));
+                }
+                i++;
+                continue;
+            }
+
+            if (result == null) {
+                result = new ArrayList<>(words.subList(0, i));
+            }
+            for (String replaced : output) {
+                if (!replaced.isEmpty()) {
+                    result.add(replaced);
+                }
+            }
+            i += consumed;
+        }
+        return result != null ? result : words;
+    }
+
+    private static boolean matches(List<String> words, int start, List<String> pattern) {
+        if (start + pattern.size() > words.size()) {
+            return false;
+        }
+        for (int j = 0; j < pattern.size(); j++) {
+            String word = words.get(start + j);
+            String expected = pattern.get(j);
+            boolean literal = word.startsWith("'") || word.startsWith("\"");
+            if (literal ? !word.equals(expected) : !word.equalsIgnoreCase(expected)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String join(List<String> words) {
+        return String.join(" ", words);
+    }
+
+    private static String replaceIgnoreCase(String word, String pattern, String replacement) {
+        StringBuilder result = new StringBuilder();
+        String upperWord = word.toUpperCase(Locale.ROOT);
+        String upperPattern = pattern.toUpperCase(Locale.ROOT);
+        int from = 0;
+        int match;
+        while ((match = upperWord.indexOf(upperPattern, from)) >= 0) {
+            result.append(word, from, match).append(replacement);
+            from = match + pattern.length();
+        }
+        return result.append(word, from, word.length()).toString();
+    }
+}
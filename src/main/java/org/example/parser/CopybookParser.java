@@ -1,25 +1,38 @@
 package org.example.parser;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.example.parser.util.FileUtils;
 import org.example.parser.util.JsonUtils;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class CopybookParser {
 
+    /**
+     * Layouts and fields parsed from one copybook. A result is mutable while the parser builds it; once
+     * {@linkplain #freeze() frozen} it is the immutable model shared across worker threads, as handed out by
+     * {@link LayoutCache}.
+     */
     public static class ParseResult {
         private List<CobolField> fields;
         private List<RecordLayout> recordLayouts;
         private String fileName;
         private int totalLength;
+        @JsonIgnore
+        private boolean frozen;
 
         public ParseResult() {
             this.fields = new ArrayList<>();
@@ -27,13 +40,37 @@ public class CopybookParser {
         }
 
         public List<CobolField> getFields() { return fields; }
-        public void setFields(List<CobolField> fields) { this.fields = fields; }
+        public void setFields(List<CobolField> fields) { checkMutable(); this.fields = fields; }
         public List<RecordLayout> getRecordLayouts() { return recordLayouts; }
-        public void setRecordLayouts(List<RecordLayout> recordLayouts) { this.recordLayouts = recordLayouts; }
+        public void setRecordLayouts(List<RecordLayout> recordLayouts) { checkMutable(); this.recordLayouts = recordLayouts; }
         public String getFileName() { return fileName; }
-        public void setFileName(String fileName) { this.fileName = fileName; }
+        public void setFileName(String fileName) { checkMutable(); this.fileName = fileName; }
         public int getTotalLength() { return totalLength; }
-        public void setTotalLength(int totalLength) { this.totalLength = totalLength; }
+        public void setTotalLength(int totalLength) { checkMutable(); this.totalLength = totalLength; }
+
+        /**
+         * Makes the result and every layout and field in it read-only (see {@link CobolField#freeze()}) and
+         * returns it, so one instance can be shared between threads.
+         */
+        public ParseResult freeze() {
+            if (!frozen) {
+                fields.forEach(CobolField::freeze);
+                recordLayouts.forEach(RecordLayout::freeze);
+                fields = List.copyOf(fields);
+                recordLayouts = List.copyOf(recordLayouts);
+                frozen = true;
+            }
+            return this;
+        }
+
+        @JsonIgnore
+        public boolean isFrozen() { return frozen; }
+
+        private void checkMutable() {
+            if (frozen) {
+                throw new IllegalStateException("Parse result of " + fileName + " is frozen");
+            }
+        }
     }
 
     public static class RecordLayout {
@@ -45,6 +82,8 @@ public class CopybookParser {
         private int length;
         private List<String> recordTypeValues;
         private String description;
+        @JsonIgnore
+        private boolean frozen;
 
         public RecordLayout(String name) {
             this.name = name;
@@ -54,24 +93,45 @@ public class CopybookParser {
 
         // Getters and setters
         public String getName() { return name; }
-        public void setName(String name) { this.name = name; }
+        public void setName(String name) { checkMutable(); this.name = name; }
         public String getRedefines() { return redefines; }
-        public void setRedefines(String redefines) { this.redefines = redefines; }
+        public void setRedefines(String redefines) { checkMutable(); this.redefines = redefines; }
         public List<CobolField> getFields() { return fields; }
-        public void setFields(List<CobolField> fields) { this.fields = fields; }
+        public void setFields(List<CobolField> fields) { checkMutable(); this.fields = fields; }
         public int getStartPosition() { return startPosition; }
-        public void setStartPosition(int startPosition) { this.startPosition = startPosition; }
+        public void setStartPosition(int startPosition) { checkMutable(); this.startPosition = startPosition; }
         public int getEndPosition() { return endPosition; }
-        public void setEndPosition(int endPosition) { this.endPosition = endPosition; }
+        public void setEndPosition(int endPosition) { checkMutable(); this.endPosition = endPosition; }
         public int getLength() { return length; }
         public void setLength(int length) {
+            checkMutable();
             this.length = length;
             this.endPosition = this.startPosition + length - 1;
         }
         public List<String> getRecordTypeValues() { return recordTypeValues; }
-        public void setRecordTypeValues(List<String> recordTypeValues) { this.recordTypeValues = recordTypeValues; }
+        public void setRecordTypeValues(List<String> recordTypeValues) { checkMutable(); this.recordTypeValues = recordTypeValues; }
         public String getDescription() { return description; }
-        public void setDescription(String description) { this.description = description; }
+        public void setDescription(String description) { checkMutable(); this.description = description; }
+
+        public RecordLayout freeze() {
+            if (!frozen) {
+                fields.forEach(CobolField::freeze);
+                fields = List.copyOf(fields);
+                // An 88-level without a VALUE leaves a null entry, which List.copyOf would reject
+                recordTypeValues = Collections.unmodifiableList(new ArrayList<>(recordTypeValues));
+                frozen = true;
+            }
+            return this;
+        }
+
+        @JsonIgnore
+        public boolean isFrozen() { return frozen; }
+
+        private void checkMutable() {
+            if (frozen) {
+                throw new IllegalStateException("Record layout " + name + " is frozen");
+            }
+        }
     }
 
     private static class PositionTracker {
@@ -90,15 +150,67 @@ public class CopybookParser {
         Map<String, String> layoutNames = new HashMap<>();
     }
 
+    /** Record length assumed when the copybook has no {@code REC LEN} comment. */
+    private static final int DEFAULT_RECORD_LENGTH = 300;
+
+    private final ParserOptions options;
+    private final CopybookLibrary library;
+
+    public CopybookParser() {
+        this(ParserOptions.defaults());
+    }
+
+    public CopybookParser(ParserOptions options) {
+        this(options, null);
+    }
+
+    /**
+     * Creates a parser that expands COPY statements from {@code library}; with a null library they are ignored.
+     */
+    public CopybookParser(ParserOptions options, CopybookLibrary library) {
+        this.options = options;
+        this.library = library;
+    }
+
+    public ParserOptions getOptions() { return options; }
+    public CopybookLibrary getLibrary() { return library; }
+
+    /**
+     * Parses a copybook file. With a library, the members it copies are recorded there against the file (see
+     * {@link CopybookLibrary#getDependents(Path)}).
+     */
     public ParseResult parseCopybook(Path copybookPath) throws IOException {
-        List<String> lines = Files.readAllLines(copybookPath);
-        List<CopybookTokenizer.Token> tokens = CopybookTokenizer.tokenize(lines);
+        Set<Path> copied = new HashSet<>();
+        ParseResult result = parseCopybook(copybookPath.getFileName().toString(), Files.readAllLines(copybookPath),
+                copied);
+        if (library != null) {
+            library.recordIncludes(copybookPath, copied);
+        }
+        return result;
+    }
+
+    /**
+     * Parses copybook source that has already been read, reporting it under {@code fileName}.
+     */
+    public ParseResult parseCopybook(String fileName, List<String> lines) throws IOException {
+        return parseCopybook(fileName, lines, new HashSet<>());
+    }
+
+    /**
+     * Parses like {@link #parseCopybook(String, List)} and adds the path of every COPY member read to
+     * {@code copied}.
+     */
+    ParseResult parseCopybook(String fileName, List<String> lines, Set<Path> copied) throws IOException {
+        List<CopybookTokenizer.Token> tokens = library != null
+                ? CopybookTokenizer.tokenize(lines, library, copied)
+                : CopybookTokenizer.tokenize(lines);
 
         ParseResult result = new ParseResult();
-        result.setFileName(copybookPath.getFileName().toString());
+        result.setFileName(fileName);
 
         // Extract record length from comments
-        int recordLength = extractRecordLengthFromComments(lines);
+        int declaredLength = extractRecordLengthFromComments(lines);
+        int recordLength = declaredLength > 0 ? declaredLength : DEFAULT_RECORD_LENGTH;
         result.setTotalLength(recordLength);
 
         // Analyze record type pattern
@@ -111,7 +223,7 @@ public class CopybookParser {
         }
 
         // Process actual record layouts
-        processRecordLayouts(tokens, result, recordLength, analysis);
+        processRecordLayouts(tokens, result, declaredLength, analysis);
 
         return result;
     }
@@ -125,50 +237,64 @@ public class CopybookParser {
                 return Integer.parseInt(matcher.group(1));
             }
         }
-        return 300; // Default
+        return 0;
     }
 
+    /**
+     * Finds the shared record type field: the first elementary item that owns 88-level conditions and is not
+     * followed by another elementary item at its level or above before the first REDEFINES. Everything the
+     * test needs is gathered in one backward pass, so the scan stays linear however many candidates there are.
+     */
     private RecordTypeAnalysis analyzeRecordTypePattern(List<CopybookTokenizer.Token> tokens) {
         RecordTypeAnalysis analysis = new RecordTypeAnalysis();
-
-        // Look for shared record type pattern
-        for (int i = 0; i < tokens.size(); i++) {
+        int size = tokens.size();
+
+        // conditionsFrom[i] counts the 88-levels at index i or later
+        int[] conditionsFrom = new int[size + 1];
+        // Indices whose level is not above anything nearer; the top is the next item at or above a level
+        int[] itemStack = new int[size];
+        int[] pictureStack = new int[size];
+        int itemTop = 0;
+        int pictureTop = 0;
+        int nextRedefines = size;
+        int sharedIndex = -1;
+
+        for (int i = size - 1; i >= 0; i--) {
             CopybookTokenizer.Token token = tokens.get(i);
+            conditionsFrom[i] = conditionsFrom[i + 1] + (token.level == 88 && token.isConditionName ? 1 : 0);
 
-            // Check if this field has 88-levels and appears before any REDEFINES
-            if (token.picture != null && hasConditionNames(tokens, i)) {
-                boolean appearsBeforeRedefines = true;
-                for (int j = i + 1; j < tokens.size(); j++) {
-                    if (tokens.get(j).redefines != null) {
-                        break;
-                    } else if (tokens.get(j).level <= token.level && tokens.get(j).picture != null) {
-                        appearsBeforeRedefines = false;
-                        break;
-                    }
+            while (itemTop > 0 && tokens.get(itemStack[itemTop - 1]).level > token.level) {
+                itemTop--;
+            }
+            int subtreeEnd = itemTop > 0 ? itemStack[itemTop - 1] : size;
+            itemStack[itemTop++] = i;
+
+            if (token.picture != null) {
+                while (pictureTop > 0 && tokens.get(pictureStack[pictureTop - 1]).level > token.level) {
+                    pictureTop--;
                 }
+                int nextPicture = pictureTop > 0 ? pictureStack[pictureTop - 1] : size;
+                pictureStack[pictureTop++] = i;
 
-                if (appearsBeforeRedefines) {
-                    analysis.isSharedPattern = true;
-                    analysis.sharedRecordTypeField = token;
-                    extractConditionValues(tokens, i, analysis);
-                    break;
+                boolean hasConditionNames = conditionsFrom[i + 1] > conditionsFrom[subtreeEnd];
+                boolean appearsBeforeRedefines = nextRedefines <= nextPicture;
+                if (hasConditionNames && appearsBeforeRedefines) {
+                    sharedIndex = i;
                 }
             }
-        }
-
-        return analysis;
-    }
 
-    private boolean hasConditionNames(List<CopybookTokenizer.Token> tokens, int fieldIndex) {
-        for (int i = fieldIndex + 1; i < tokens.size(); i++) {
-            CopybookTokenizer.Token token = tokens.get(i);
-            if (token.level == 88 && token.isConditionName) {
-                return true;
-            } else if (token.level <= tokens.get(fieldIndex).level) {
-                break;
+            if (token.redefines != null) {
+                nextRedefines = i;
             }
         }
-        return false;
+
+        if (sharedIndex >= 0) {
+            analysis.isSharedPattern = true;
+            analysis.sharedRecordTypeField = tokens.get(sharedIndex);
+            extractConditionValues(tokens, sharedIndex, analysis);
+        }
+
+        return analysis;
     }
 
     private void extractConditionValues(List<CopybookTokenizer.Token> tokens, int fieldIndex, RecordTypeAnalysis analysis) {
@@ -226,7 +352,7 @@ public class CopybookParser {
             CobolField recordTypeField = createFieldFromToken(analysis.sharedRecordTypeField);
             recordTypeField.setStartPosition(1);
 
-            int fieldLength = calculateActualFieldLength(recordTypeField);
+            int fieldLength = recordTypeField.getStorageLength();
             recordTypeField.setLength(fieldLength);
             recordTypeField.setEndPosition(fieldLength);
 
@@ -239,13 +365,17 @@ public class CopybookParser {
         }
     }
 
-    private void processRecordLayouts(List<CopybookTokenizer.Token> tokens, ParseResult result, int recordLength, RecordTypeAnalysis analysis) {
+    /**
+     * @param declaredLength the REC LEN from the comments, or 0 when there is none
+     */
+    private void processRecordLayouts(List<CopybookTokenizer.Token> tokens, ParseResult result, int declaredLength, RecordTypeAnalysis analysis) {
+        int recordLength = declaredLength > 0 ? declaredLength : DEFAULT_RECORD_LENGTH;
         if (analysis.isSharedPattern) {
             // Process shared pattern - create layouts for each record type value
             createLayoutsFromSharedPattern(tokens, result, recordLength, analysis);
         } else {
             // Process individual pattern - find separate record structures
-            processIndividualRecordLayouts(tokens, result, recordLength);
+            processIndividualRecordLayouts(tokens, result, recordLength, declaredLength);
         }
     }
 
@@ -365,7 +495,7 @@ public class CopybookParser {
         layout.getFields().add(sharedRecordType);
 
         // Add placeholder data field
-        int recordTypeLength = calculateActualFieldLength(createFieldFromToken(analysis.sharedRecordTypeField));
+        int recordTypeLength = createFieldFromToken(analysis.sharedRecordTypeField).getStorageLength();
         int dataLength = recordLength - recordTypeLength;
 
         CobolField dataField = new CobolField(10, layoutType.replace("-RECORD", "-DATA"));
@@ -385,7 +515,7 @@ public class CopybookParser {
         CobolField recordTypeField = createFieldFromToken(analysis.sharedRecordTypeField);
         recordTypeField.setStartPosition(1);
 
-        int fieldLength = calculateActualFieldLength(recordTypeField);
+        int fieldLength = recordTypeField.getStorageLength();
         recordTypeField.setLength(fieldLength);
         recordTypeField.setEndPosition(fieldLength);
 
@@ -402,6 +532,12 @@ public class CopybookParser {
         PositionTracker positionTracker = new PositionTracker();
         positionTracker.setPosition(layout.getFields().get(0).getEndPosition() + 1); // Start after record type field
 
+        // First field of each name in source order, for resolving REDEFINES targets
+        Map<String, CobolField> fieldsByName = new HashMap<>();
+        for (CobolField field : layout.getFields()) {
+            fieldsByName.putIfAbsent(field.getName(), field);
+        }
+
         // Process fields starting from index 1 (skip the structure header)
         for (int i = 1; i < structureTokens.size(); i++) {
             CopybookTokenizer.Token token = structureTokens.get(i);
@@ -415,11 +551,12 @@ public class CopybookParser {
 
             // Handle nested REDEFINES
             if (token.redefines != null) {
-                int redefinesPos = findRedefinesPosition(layout.getFields(), fieldStack, token.redefines);
-                positionTracker.setPosition(redefinesPos);
+                CobolField redefined = fieldsByName.get(token.redefines);
+                positionTracker.setPosition(redefined != null ? redefined.getStartPosition() : 1);
             }
 
             CobolField field = createFieldFromToken(token);
+            fieldsByName.putIfAbsent(field.getName(), field);
 
             // Pop completed fields
             while (!fieldStack.isEmpty() && fieldStack.peek().getLevel() >= field.getLevel()) {
@@ -435,14 +572,14 @@ public class CopybookParser {
 
             field.setStartPosition(positionTracker.getCurrentPosition());
 
-            if (field.getPicture() != null) {
-                int fieldLength = calculateActualFieldLength(field);
+            if (field.isElementary()) {
+                int fieldLength = field.getStorageLength();
                 field.setLength(fieldLength);
                 field.setEndPosition(positionTracker.getCurrentPosition() + fieldLength - 1);
 
                 // Only advance if not a REDEFINES field
                 if (token.redefines == null) {
-                    positionTracker.advancePosition(fieldLength);
+                    positionTracker.advancePosition(fieldLength * Math.max(field.getOccursCount(), 1));
                 }
             }
 
@@ -465,53 +602,40 @@ public class CopybookParser {
         createArrayElementsAndCleanup(layout.getFields());
     }
 
-    private int findRedefinesPosition(List<CobolField> layoutFields, Stack<CobolField> fieldStack, String redefinesName) {
-        // Search in layout fields first
-        for (CobolField field : layoutFields) {
-            if (field.getName().equals(redefinesName)) {
-                return field.getStartPosition();
-            }
-            int pos = findRedefinesPositionInChildren(field.getChildren(), redefinesName);
-            if (pos > 0) return pos;
-        }
+    private void processIndividualRecordLayouts(List<CopybookTokenizer.Token> tokens, ParseResult result, int recordLength, int declaredLength) {
+        // Find 01-level records with REDEFINES
+        for (int i = 0; i < tokens.size(); i++) {
+            CopybookTokenizer.Token token = tokens.get(i);
 
-        // Search in field stack
-        for (CobolField field : fieldStack) {
-            if (field.getName().equals(redefinesName)) {
-                return field.getStartPosition();
+            if (token.level == 1 && token.redefines != null && !token.isConditionName) {
+                RecordLayout layout = createIndividualRecordLayout(tokens, i, recordLength);
+                if (layout != null) {
+                    result.getRecordLayouts().add(layout);
+                }
             }
-            int pos = findRedefinesPositionInChildren(field.getChildren(), redefinesName);
-            if (pos > 0) return pos;
         }
-
-        return 1; // Default
-    }
-
-    private int findRedefinesPositionInChildren(List<CobolField> children, String redefinesName) {
-        for (CobolField child : children) {
-            if (child.getName().equals(redefinesName)) {
-                return child.getStartPosition();
-            }
-            int pos = findRedefinesPositionInChildren(child.getChildren(), redefinesName);
-            if (pos > 0) return pos;
+        if (!result.getRecordLayouts().isEmpty()) {
+            return;
         }
-        return 0;
-    }
 
-    private void processIndividualRecordLayouts(List<CopybookTokenizer.Token> tokens, ParseResult result, int recordLength) {
-        // Find 01-level records with REDEFINES
+        // Without REDEFINES each 01 record is a layout of its own, as the records of a file share one area. Without
+        // a REC LEN comment the record is as long as its fields, not the 300-byte default.
         for (int i = 0; i < tokens.size(); i++) {
             CopybookTokenizer.Token token = tokens.get(i);
 
-            if (token.level == 1 && token.redefines != null && !token.isConditionName) {
-                RecordLayout layout = createIndividualRecordLayout(tokens, i, recordLength);
-                if (layout != null) {
+            if (token.level == 1 && !token.isConditionName) {
+                RecordLayout layout = createIndividualRecordLayout(tokens, i, declaredLength);
+                if (layout != null && !layout.getFields().isEmpty()) {
                     result.getRecordLayouts().add(layout);
                 }
             }
         }
     }
 
+    /**
+     * Builds the layout of the 01 record at {@code startIndex}. A {@code recordLength} of 0 takes the length of
+     * the record's fields.
+     */
     private RecordLayout createIndividualRecordLayout(List<CopybookTokenizer.Token> tokens, int startIndex, int recordLength) {
         CopybookTokenizer.Token firstToken = tokens.get(startIndex);
 
@@ -560,11 +684,11 @@ public class CopybookParser {
 
             field.setStartPosition(positionTracker.getCurrentPosition());
 
-            if (field.getPicture() != null) {
-                int fieldLength = calculateActualFieldLength(field);
+            if (field.isElementary()) {
+                int fieldLength = field.getStorageLength();
                 field.setLength(fieldLength);
                 field.setEndPosition(positionTracker.getCurrentPosition() + fieldLength - 1);
-                positionTracker.advancePosition(fieldLength);
+                positionTracker.advancePosition(fieldLength * Math.max(field.getOccursCount(), 1));
             }
 
             fieldStack.push(field);
@@ -584,6 +708,9 @@ public class CopybookParser {
 
         createArrayElementsAndCleanup(layout.getFields());
 
+        if (recordLength <= 0) {
+            layout.setLength(positionTracker.getCurrentPosition() - 1);
+        }
         return layout;
     }
 
@@ -597,8 +724,8 @@ public class CopybookParser {
     }
 
     private void processCompletedField(CobolField field, PositionTracker positionTracker) {
-        if (field.getPicture() == null && !field.getChildren().isEmpty()) {
-            int groupLength = calculateGroupFieldLength(field);
+        if (!field.isElementary() && !field.getChildren().isEmpty()) {
+            int groupLength = field.getGroupLength();
 
             if (field.getOccursCount() > 0) {
                 int totalLength = groupLength * field.getOccursCount();
@@ -614,116 +741,72 @@ public class CopybookParser {
         }
     }
 
-    private int calculateGroupFieldLength(CobolField groupField) {
-        int totalLength = 0;
-
-        for (CobolField child : groupField.getChildren()) {
-            if (child.getPicture() != null) {
-                totalLength += calculateActualFieldLength(child);
-            } else {
-                totalLength += calculateGroupFieldLength(child);
-            }
-        }
-
-        return totalLength;
-    }
-
     private void createArrayElementsAndCleanup(List<CobolField> fields) {
         for (CobolField field : fields) {
-            if (field.getOccursCount() > 0) {
-                int singleOccurrenceLength = calculateGroupFieldLength(field);
+            if (field.getOccursCount() > 0 && options.compactOccurs()) {
+                // Keep the children as a template for the first occurrence; later ones are offset by the stride
+                field.setOccursStride(field.getStorageLength());
+                createArrayElementsAndCleanup(field.getChildren());
+            } else if (field.getOccursCount() > 0) {
+                int singleOccurrenceLength = field.getStorageLength();
                 int currentPos = field.getStartPosition();
 
                 for (int i = 1; i <= field.getOccursCount(); i++) {
                     CobolField.ArrayElement arrayElement = new CobolField.ArrayElement(i, currentPos, singleOccurrenceLength);
-                    addFieldPositionsToArrayElement(field.getChildren(), arrayElement, currentPos);
+                    if (field.isElementary()) {
+                        arrayElement.getFields().add(createFieldPosition(field, field.getName(), currentPos));
+                    } else {
+                        addFieldPositionsToArrayElement(field.getChildren(), arrayElement, currentPos, "");
+                    }
                     field.getArrayElements().add(arrayElement);
                     currentPos += singleOccurrenceLength;
                 }
 
-                field.getChildren().clear();
+                field.setChildren(new ArrayList<>());
             } else {
                 createArrayElementsAndCleanup(field.getChildren());
             }
         }
     }
 
-    private void addFieldPositionsToArrayElement(List<CobolField> children, CobolField.ArrayElement arrayElement, int basePosition) {
+    /**
+     * Adds the elementary fields of one occurrence, expanding nested OCCURS tables in place. Fields of nested
+     * tables are named with their own subscripts, such as {@code NAME(2)} or {@code NAME(2,3)}.
+     */
+    private void addFieldPositionsToArrayElement(List<CobolField> children, CobolField.ArrayElement arrayElement,
+                                                 int basePosition, String subscripts) {
         int currentPos = basePosition;
 
         for (CobolField child : children) {
-            if (child.getPicture() != null) {
-                int fieldLength = calculateActualFieldLength(child);
-                CobolField.FieldPosition fieldPosition = new CobolField.FieldPosition(
-                        child.getName(),
-                        currentPos,
-                        fieldLength,
-                        child.getPicture(),
-                        child.getDataType(),
-                        child.getUsage()
-                );
-                arrayElement.getFields().add(fieldPosition);
-                currentPos += fieldLength;
-            } else {
-                addFieldPositionsToArrayElement(child.getChildren(), arrayElement, currentPos);
-                currentPos += calculateGroupFieldLength(child);
-            }
-        }
-    }
+            int occurrenceLength = child.getStorageLength();
 
-    private int calculateActualFieldLength(CobolField field) {
-        if (field.getLength() > 0 && field.getPicture() != null) {
-            int baseLength = field.getLength();
-
-            if ("COMP-3".equals(field.getUsage()) || "PACKED-DECIMAL".equals(field.getUsage())) {
-                String pic = field.getPicture();
-                int totalDigits = extractTotalDigits(pic);
-                return (totalDigits + 1) / 2;
-            } else if ("COMP".equals(field.getUsage()) || "BINARY".equals(field.getUsage())) {
-                String pic = field.getPicture();
-                int totalDigits = extractTotalDigits(pic);
-                if (totalDigits <= 4) return 2;
-                else if (totalDigits <= 9) return 4;
-                else return 8;
-            } else if ("COMP-1".equals(field.getUsage())) {
-                return 4;
-            } else if ("COMP-2".equals(field.getUsage())) {
-                return 8;
-            }
+            for (int i = 1; i <= Math.max(child.getOccursCount(), 1); i++) {
+                String childSubscripts = child.getOccursCount() == 0 ? subscripts
+                        : subscripts.isEmpty() ? String.valueOf(i) : subscripts + "," + i;
 
-            return baseLength;
-        }
-        return 1;
-    }
-
-    private int extractTotalDigits(String picture) {
-        if (picture == null) return 0;
-
-        int totalDigits = 0;
-        String pic = picture.toUpperCase().replaceAll("\\s+", "");
-        pic = pic.replace("S", "").replace("V", "");
-
-        while (pic.contains("9(")) {
-            int start = pic.indexOf("9(");
-            int end = pic.indexOf(")", start);
-            if (end != -1) {
-                try {
-                    int count = Integer.parseInt(pic.substring(start + 2, end));
-                    totalDigits += count;
-                    pic = pic.substring(0, start) + pic.substring(end + 1);
-                } catch (NumberFormatException e) {
-                    break;
+                if (child.isElementary()) {
+                    String name = childSubscripts.isEmpty() ? child.getName()
+                            : child.getName() + "(" + childSubscripts + ")";
+                    arrayElement.getFields().add(createFieldPosition(child, name, currentPos));
+                } else {
+                    addFieldPositionsToArrayElement(child.getChildren(), arrayElement, currentPos, childSubscripts);
                 }
-            } else {
-                break;
+                currentPos += occurrenceLength;
             }
         }
+    }
 
-        for (char c : pic.toCharArray()) {
-            if (c == '9') totalDigits++;
-        }
-
-        return totalDigits;
+    private CobolField.FieldPosition createFieldPosition(CobolField field, String name, int position) {
+        CobolField.FieldPosition fieldPosition = new CobolField.FieldPosition(
+                name,
+                position,
+                field.getStorageLength(),
+                field.getPicture(),
+                field.getDataType(),
+                field.getUsage()
+        );
+        fieldPosition.setSource(field);
+        return fieldPosition;
     }
 
     private String getMeaningfulUsage(String usage) {
@@ -748,15 +831,17 @@ public class CopybookParser {
     private CobolField createFieldFromToken(CopybookTokenizer.Token token) {
         CobolField field = new CobolField(token.level, token.name);
 
+        String usage = token.usage != null ? token.usage : "DISPLAY";
+        field.setUsage(getMeaningfulUsage(usage));
+        field.setUsageType(CobolUsage.fromString(usage));
+
         if (token.picture != null) {
             field.setPicture(token.picture);
         } else {
-            field.setDataType("GROUP");
+            // COMP-1 and COMP-2 items are elementary even though they carry no PIC clause
+            field.setDataType(field.isElementary() ? "NUMBER" : "GROUP");
         }
 
-        String usage = token.usage != null ? token.usage : "DISPLAY";
-        field.setUsage(getMeaningfulUsage(usage));
-
         if (token.occurs > 0) {
             field.setOccursCount(token.occurs);
         }
@@ -765,6 +850,11 @@ public class CopybookParser {
             field.setRedefines(token.redefines);
         }
 
+        if (field.isSigned()) {
+            field.setSignLeading(token.signLeading);
+            field.setSignSeparate(token.signSeparate);
+        }
+
         if (token.value != null) {
             field.setValue(token.value);
         }
@@ -780,8 +870,21 @@ public class CopybookParser {
         return JsonUtils.toPrettyJson(parseResult);
     }
 
+    public void writeJson(ParseResult parseResult, OutputStream out, boolean pretty) throws IOException {
+        if (pretty) {
+            JsonUtils.writePrettyJson(parseResult, out);
+        } else {
+            JsonUtils.writeJson(parseResult, out);
+        }
+    }
+
     public void saveJsonToFile(ParseResult parseResult, Path outputPath) throws IOException {
-        String json = toPrettyJson(parseResult);
-        Files.writeString(outputPath, json);
+        saveJsonToFile(parseResult, outputPath, true);
+    }
+
+    public void saveJsonToFile(ParseResult parseResult, Path outputPath, boolean pretty) throws IOException {
+        try (OutputStream out = FileUtils.newBufferedOutputStream(outputPath)) {
+            writeJson(parseResult, out, pretty);
+        }
     }
 }
@@ -1,18 +1,29 @@
 package org.example.parser;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.function.Consumer;
 
+/**
+ * Splits copybook source into one {@link Token} per data description entry. Both passes are hand-written
+ * scans over the raw characters: lines are classified and joined into statements, then each statement is
+ * broken into words (quoted literals kept whole) and matched against the clause keywords, with no regular
+ * expressions involved.
+ *
+ * <p>The reference format is decided once per source: it is fixed format when every line with text has a sequence
+ * area (columns 1-6) that is either blank or a full six-digit sequence number, followed by an indicator in column
+ * 7. The sequence and identification (73-80) areas are then ignored and an indicator of {@code *}, {@code /} or
+ * {@code D} marks a comment. Anything else is free format and each line is simply trimmed, so an indented level
+ * number is never mistaken for a sequence number.
+ */
 public class CopybookTokenizer {
-    private static final Pattern LEVEL_NAME_PATTERN = Pattern.compile(
-            "^\\s*(\\d{2})\\s+([A-Za-z0-9_-]+).*$"
-    );
-
-    private static final Pattern VALUE_PATTERN = Pattern.compile(
-            "VALUE\\s+['\"]?([^'\"\\s\\.]+)['\"]?", Pattern.CASE_INSENSITIVE
-    );
+    private static final int SEQUENCE_AREA = 6;
+    private static final int CODE_AREA_END = 72;
+    private static final int IDENTIFICATION_AREA_END = 80;
 
     public static class Token {
         public int level;
@@ -21,122 +32,364 @@ public class CopybookTokenizer {
         public String usage;
         public int occurs;
         public String redefines;
+        public boolean signLeading;
+        public boolean signSeparate;
         public String value;
         public String originalLine;
         public boolean isConditionName;
 
         public Token(String line) {
             this.originalLine = line.trim();
-            parseLine(line);
+            parseWords(splitWords(originalLine));
+        }
+
+        /**
+         * Creates a token from a statement that has already been split into words.
+         */
+        Token(String line, List<String> words) {
+            this.originalLine = line;
+            parseWords(words);
         }
 
-        private void parseLine(String line) {
-            line = line.trim();
-            if (line.endsWith(".")) {
-                line = line.substring(0, line.length() - 1);
+        private void parseWords(List<String> words) {
+            if (words.size() < 2 || !isLevelNumber(words.get(0))) {
+                return;
             }
 
-            Matcher levelNameMatcher = LEVEL_NAME_PATTERN.matcher(line);
-            if (levelNameMatcher.matches()) {
-                try {
-                    this.level = Integer.parseInt(levelNameMatcher.group(1));
-                    this.name = levelNameMatcher.group(2);
-                    this.isConditionName = (this.level == 88);
-                } catch (NumberFormatException e) {
-                    this.level = 1;
-                    this.name = "UNKNOWN";
+            // An entry without a data name is an anonymous FILLER; its clauses start right after the level
+            boolean anonymous = isClauseKeyword(words.get(1));
+            this.level = parseNumber(words.get(0));
+            this.name = anonymous ? "FILLER" : words.get(1);
+            this.isConditionName = (this.level == 88);
+
+            for (int i = anonymous ? 1 : 2; i < words.size(); i++) {
+                String word = words.get(i).toUpperCase();
+
+                if (word.equals("VALUE") || word.equals("VALUES")) {
+                    int next = skipOptional(words, i + 1, "IS", "ARE");
+                    if (value == null && next < words.size()) {
+                        this.value = unquote(words.get(next));
+                    }
+                    i = next;
+                    continue;
+                }
+
+                // 88-level items only carry values
+                if (isConditionName) {
+                    continue;
+                }
+
+                switch (word) {
+                    case "PIC", "PICTURE" -> {
+                        int next = skipOptional(words, i + 1, "IS");
+                        if (picture == null && next < words.size()) {
+                            this.picture = words.get(next);
+                        }
+                        i = next;
+                    }
+                    case "OCCURS" -> {
+                        if (occurs == 0 && i + 1 < words.size() && isDigits(words.get(i + 1))) {
+                            this.occurs = parseNumber(words.get(i + 1));
+                            i++;
+                        }
+                    }
+                    case "REDEFINES" -> {
+                        if (redefines == null && i + 1 < words.size()) {
+                            this.redefines = words.get(++i);
+                        }
+                    }
+                    case "LEADING", "TRAILING" -> {
+                        this.signLeading = word.equals("LEADING");
+                        if (i + 1 < words.size() && words.get(i + 1).equalsIgnoreCase("SEPARATE")) {
+                            this.signSeparate = true;
+                            i++;
+                        }
+                    }
+                    default -> {
+                        String normalizedUsage = normalizeUsage(word);
+                        if (usage == null && normalizedUsage != null) {
+                            this.usage = normalizedUsage;
+                        }
+                    }
                 }
             }
+        }
+    }
 
-            // Parse all fields including 88-level items
-            if (!isConditionName) {
-                parsePicture(line);
-                parseUsage(line);
-                parseOccurs(line);
-                parseRedefines(line);
+    public static List<Token> tokenize(List<String> lines) {
+        List<Token> tokens = new ArrayList<>();
+        forEachStatement(lines, statement -> {
+            // COPY statements need a library to expand; without one they are skipped
+            if (!isCopyStatement(statement)) {
+                tokens.add(new Token(statement));
             }
+        });
+        return tokens;
+    }
 
-            parseValue(line);
-        }
+    /**
+     * Tokenizes copybook source, expanding COPY statements (with any REPLACING phrase) from {@code library}.
+     */
+    public static List<Token> tokenize(List<String> lines, CopybookLibrary library) throws IOException {
+        return tokenize(lines, library, new HashSet<>());
+    }
+
+    /**
+     * Tokenizes like {@link #tokenize(List, CopybookLibrary)} and adds the path of every member copied to
+     * {@code copied}.
+     */
+    static List<Token> tokenize(List<String> lines, CopybookLibrary library, Set<Path> copied) throws IOException {
+        List<String> statements = new ArrayList<>();
+        forEachStatement(lines, statements::add);
 
-        private void parsePicture(String line) {
-            Pattern picPattern = Pattern.compile("PIC\\s+([^\\s\\.]+)", Pattern.CASE_INSENSITIVE);
-            Matcher matcher = picPattern.matcher(line);
-            if (matcher.find()) {
-                this.picture = matcher.group(1);
+        List<Token> tokens = new ArrayList<>();
+        for (String statement : statements) {
+            if (isCopyStatement(statement)) {
+                library.expand(statement, tokens, copied);
+            } else {
+                tokens.add(new Token(statement));
             }
         }
+        return tokens;
+    }
+
+    /**
+     * Joins source lines into statements. A statement starts at a line that begins with a level number or the
+     * COPY keyword and takes in the following lines that do not.
+     */
+    static void forEachStatement(List<String> lines, Consumer<String> sink) {
+        StringBuilder continuationLine = new StringBuilder();
+        boolean fixedFormat = isFixedFormat(lines);
 
-        private void parseUsage(String line) {
-            Pattern usagePattern = Pattern.compile("(COMP|COMP-[1-5]|BINARY|PACKED-DECIMAL|DISPLAY)(?!\\-)", Pattern.CASE_INSENSITIVE);
-            Matcher matcher = usagePattern.matcher(line);
-            if (matcher.find()) {
-                this.usage = matcher.group(1);
+        for (String line : lines) {
+            String trimmed = codeArea(line, fixedFormat);
+            if (trimmed.isEmpty() || trimmed.charAt(0) == '*') {
+                continue;
             }
-        }
 
-        private void parseOccurs(String line) {
-            Pattern occursPattern = Pattern.compile("OCCURS\\s+(\\d+)", Pattern.CASE_INSENSITIVE);
-            Matcher matcher = occursPattern.matcher(line);
-            if (matcher.find()) {
-                this.occurs = Integer.parseInt(matcher.group(1));
+            if (!startsWithLevelNumber(trimmed) && !isCopyStatement(trimmed)) {
+                if (continuationLine.length() > 0) {
+                    continuationLine.append(' ').append(trimmed);
+                }
+                continue;
             }
-        }
 
-        private void parseRedefines(String line) {
-            Pattern redefinesPattern = Pattern.compile("REDEFINES\\s+([A-Za-z0-9_-]+)", Pattern.CASE_INSENSITIVE);
-            Matcher matcher = redefinesPattern.matcher(line);
-            if (matcher.find()) {
-                this.redefines = matcher.group(1);
+            if (continuationLine.length() > 0) {
+                sink.accept(continuationLine.toString());
+                continuationLine.setLength(0);
             }
+
+            if (trimmed.charAt(trimmed.length() - 1) == '.') {
+                sink.accept(trimmed);
+            } else {
+                continuationLine.append(trimmed);
+            }
+        }
+
+        if (continuationLine.length() > 0) {
+            sink.accept(continuationLine.toString());
         }
+    }
+
+    static boolean isCopyStatement(String statement) {
+        return statement.length() > 4 && statement.regionMatches(true, 0, "COPY", 0, 4)
+                && Character.isWhitespace(statement.charAt(4));
+    }
+
+    /**
+     * Returns the trimmed program text of a line, dropping the sequence and identification areas when the source
+     * is in fixed format. Comment lines come back starting with {@code *}.
+     */
+    static String codeArea(String line, boolean fixedFormat) {
+        int start = 0;
+        int end = line.length();
 
-        private void parseValue(String line) {
-            Matcher matcher = VALUE_PATTERN.matcher(line);
-            if (matcher.find()) {
-                this.value = matcher.group(1);
+        if (fixedFormat && end > SEQUENCE_AREA) {
+            char indicator = line.charAt(SEQUENCE_AREA);
+            // Debugging lines only count as source under WITH DEBUGGING MODE, which a copybook cannot switch on
+            if (indicator == '*' || indicator == '/' || indicator == 'D') {
+                return "*";
             }
+            start = SEQUENCE_AREA + 1;
+            if (end <= IDENTIFICATION_AREA_END) {
+                end = Math.min(end, CODE_AREA_END);
+            }
+        } else if (fixedFormat) {
+            // Only a sequence number, no program text
+            return "";
+        }
+
+        while (start < end && Character.isWhitespace(line.charAt(start))) {
+            start++;
         }
+        while (end > start && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        return line.substring(start, end);
     }
 
-    public static List<Token> tokenize(List<String> lines) {
-        List<Token> tokens = new ArrayList<>();
-        StringBuilder continuationLine = new StringBuilder();
+    /**
+     * Decides the reference format of a whole source. A single line that does not fit the fixed layout makes the
+     * source free format, as does an indented line whose columns 1-6 hold anything but blanks or six digits.
+     */
+    static boolean isFixedFormat(List<String> lines) {
+        boolean sawCode = false;
 
         for (String line : lines) {
-            String trimmed = line.trim();
-            if (trimmed.isEmpty() || trimmed.startsWith("*")) {
+            if (line.isBlank()) {
                 continue;
             }
-
-            if (!trimmed.matches("^\\d{2}\\s+.*")) {
-                if (continuationLine.length() > 0) {
-                    continuationLine.append(" ").append(trimmed);
+            if (line.length() <= SEQUENCE_AREA) {
+                if (!isSequenceArea(line + " ".repeat(SEQUENCE_AREA - line.length()))) {
+                    return false;
                 }
                 continue;
             }
+            if (!isSequenceArea(line) || !isIndicator(line.charAt(SEQUENCE_AREA))) {
+                return false;
+            }
+            sawCode = true;
+        }
 
-            if (continuationLine.length() > 0) {
-                Token token = new Token(continuationLine.toString());
-                tokens.add(token);
-                continuationLine = new StringBuilder();
+        return sawCode;
+    }
+
+    private static boolean isSequenceArea(String line) {
+        boolean blank = true;
+        boolean digits = true;
+        for (int i = 0; i < SEQUENCE_AREA; i++) {
+            char c = line.charAt(i);
+            blank &= c == ' ';
+            digits &= isDigit(c);
+        }
+        return blank || digits;
+    }
+
+    private static boolean isIndicator(char c) {
+        return c == ' ' || c == '*' || c == '/' || c == '-' || c == 'D';
+    }
+
+    private static boolean startsWithLevelNumber(String text) {
+        return text.length() > 2 && isDigit(text.charAt(0)) && isDigit(text.charAt(1))
+                && Character.isWhitespace(text.charAt(2));
+    }
+
+    /**
+     * Splits a statement into words on whitespace. Quoted literals stay one word including their quotes, and
+     * a separator period (one followed by whitespace or the end of the statement) is dropped.
+     */
+    static List<String> splitWords(String statement) {
+        List<String> words = new ArrayList<>();
+        int length = statement.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = statement.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
             }
 
-            if (trimmed.matches("^\\d{2}\\s+.*")) {
-                if (trimmed.endsWith(".")) {
-                    Token token = new Token(trimmed);
-                    tokens.add(token);
-                } else {
-                    continuationLine.append(trimmed);
+            int start = i;
+            if (c == '\'' || c == '"') {
+                i++;
+                while (i < length) {
+                    if (statement.charAt(i) == c) {
+                        // A doubled quote is an escaped quote inside the literal
+                        if (i + 1 < length && statement.charAt(i + 1) == c) {
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    i++;
                 }
+            } else {
+                while (i < length && !Character.isWhitespace(statement.charAt(i))) {
+                    i++;
+                }
+            }
+
+            int end = i;
+            if (end > start + 1 && statement.charAt(end - 1) == '.' && statement.charAt(start) != '\'' &&
+                    statement.charAt(start) != '"') {
+                end--;
             }
+            words.add(statement.substring(start, end));
         }
 
-        if (continuationLine.length() > 0) {
-            Token token = new Token(continuationLine.toString());
-            tokens.add(token);
+        return words;
+    }
+
+    private static int skipOptional(List<String> words, int index, String... optional) {
+        while (index < words.size()) {
+            boolean skipped = false;
+            for (String word : optional) {
+                if (words.get(index).equalsIgnoreCase(word)) {
+                    index++;
+                    skipped = true;
+                    break;
+                }
+            }
+            if (!skipped) {
+                break;
+            }
         }
+        return index;
+    }
 
-        return tokens;
+    private static String normalizeUsage(String word) {
+        return switch (word) {
+            case "COMP", "COMPUTATIONAL" -> "COMP";
+            case "COMP-1", "COMPUTATIONAL-1" -> "COMP-1";
+            case "COMP-2", "COMPUTATIONAL-2" -> "COMP-2";
+            case "COMP-3", "COMPUTATIONAL-3" -> "COMP-3";
+            case "COMP-4", "COMPUTATIONAL-4" -> "COMP-4";
+            case "COMP-5", "COMPUTATIONAL-5" -> "COMP-5";
+            case "BINARY", "PACKED-DECIMAL", "DISPLAY" -> word;
+            default -> null;
+        };
+    }
+
+    private static boolean isClauseKeyword(String word) {
+        return switch (word.toUpperCase()) {
+            case "PIC", "PICTURE", "USAGE", "OCCURS", "REDEFINES", "VALUE", "VALUES" -> true;
+            default -> false;
+        };
+    }
+
+    static String unquote(String word) {
+        char first = word.charAt(0);
+        if ((first == '\'' || first == '"') && word.length() >= 2 && word.charAt(word.length() - 1) == first) {
+            String quote = String.valueOf(first);
+            return word.substring(1, word.length() - 1).replace(quote + quote, quote);
+        }
+        return word;
+    }
+
+    private static boolean isLevelNumber(String word) {
+        return word.length() == 2 && isDigits(word);
+    }
+
+    private static boolean isDigits(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!isDigit(word.charAt(i))) {
+                return false;
+            }
+        }
+        return !word.isEmpty();
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int parseNumber(String digits) {
+        int value = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            value = value * 10 + (digits.charAt(i) - '0');
+        }
+        return value;
     }
 }
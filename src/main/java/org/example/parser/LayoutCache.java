@@ -0,0 +1,192 @@
+package org.example.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe cache of parsed copybooks, keyed by the SHA-256 of the copybook bytes, the file name and the
+ * {@link ParserOptions}. An edited copybook hashes differently and is parsed again, so entries never need to be
+ * invalidated by hand; once more than {@code maxEntries} results are held, the least recently used one is evicted.
+ *
+ * <p>With a {@link CopybookLibrary}, COPY statements are expanded from it and each entry also records the
+ * SHA-256 of every member the parse read. Those hashes are part of the entry's identity: a hit whose members no
+ * longer hash the same is parsed again, so an edited member is picked up even though the copybook's own bytes
+ * are unchanged. The members are recorded in the library too (see {@link CopybookLibrary#getDependents}).
+ *
+ * <p>Cached results are {@linkplain CopybookParser.ParseResult#freeze() frozen}, so the same instance is handed
+ * to every caller and can be used from any number of threads. Parsing happens outside the lock; two threads
+ * missing on the same key at once may both parse it, but only the first result is kept and returned to both.
+ *
+ * <p>The CLI's batch and watch modes share one cache across all their jobs; parsing a single file has nothing
+ * to reuse and goes straight to {@link CopybookParser}.
+ */
+public final class LayoutCache {
+    public static final int DEFAULT_MAX_ENTRIES = 512;
+
+    private record Key(String contentHash, String fileName, ParserOptions options) {
+    }
+
+    /**
+     * A parse result and the content hash of each COPY member it was built from.
+     */
+    private record Entry(CopybookParser.ParseResult result, Map<Path, String> memberHashes) {
+    }
+
+    /**
+     * Counters since the cache was created.
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    private final int maxEntries;
+    private final CopybookLibrary library;
+    private final Map<Key, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LayoutCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public LayoutCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * @param library resolves COPY statements; null to skip them, as a parser without a library does
+     */
+    public LayoutCache(int maxEntries, CopybookLibrary library) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.library = library;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > LayoutCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public CopybookParser.ParseResult get(Path copybookPath) throws IOException {
+        return get(copybookPath, ParserOptions.defaults());
+    }
+
+    /**
+     * Returns the frozen parse result for the copybook's current content, parsing it on a miss.
+     */
+    public CopybookParser.ParseResult get(Path copybookPath, ParserOptions options) throws IOException {
+        byte[] content = Files.readAllBytes(copybookPath);
+        String fileName = copybookPath.getFileName().toString();
+        Key key = new Key(contentHash(content), fileName, options);
+
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null && membersUnchanged(cached)) {
+            hits.increment();
+            return cached.result();
+        }
+
+        misses.increment();
+        Set<Path> copied = new HashSet<>();
+        CopybookParser.ParseResult parsed = new CopybookParser(options, library)
+                .parseCopybook(fileName, lines(content), copied).freeze();
+        if (library != null) {
+            library.recordIncludes(copybookPath, copied);
+        }
+        Entry entry = new Entry(parsed, memberHashes(copied));
+
+        synchronized (entries) {
+            Entry raced = entries.get(key);
+            if (raced != null && raced != cached && raced.memberHashes().equals(entry.memberHashes())) {
+                return raced.result();
+            }
+            entries.put(key, entry);
+            return parsed;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() { return maxEntries; }
+    public CopybookLibrary getLibrary() { return library; }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns the hex SHA-256 of copybook bytes, the content part of the cache key.
+     */
+    public static String contentHash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Map<Path, String> memberHashes(Set<Path> members) throws IOException {
+        Map<Path, String> hashes = new HashMap<>();
+        for (Path member : members) {
+            hashes.put(member, contentHash(Files.readAllBytes(member)));
+        }
+        return hashes;
+    }
+
+    private static boolean membersUnchanged(Entry entry) {
+        for (Map.Entry<Path, String> member : entry.memberHashes().entrySet()) {
+            try {
+                if (!member.getValue().equals(contentHash(Files.readAllBytes(member.getKey())))) {
+                    return false;
+                }
+            } catch (IOException e) {
+                // Deleted or unreadable: parse again and let the parser report it
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes copybook bytes into lines the way {@link Files#readAllLines(Path)} does, failing on malformed UTF-8.
+     */
+    private static List<String> lines(byte[] content) throws IOException {
+        return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(content)).toString().lines().toList();
+    }
+}
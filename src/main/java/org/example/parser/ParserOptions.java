@@ -0,0 +1,20 @@
+package org.example.parser;
+
+/**
+ * Options that change the layout produced by {@link CopybookParser}. Instances are immutable and compare by
+ * value, so they can be used as part of a cache key.
+ *
+ * @param compactOccurs keep OCCURS tables as a single template of children plus an {@code occursStride} instead
+ *                      of expanding one ArrayElement per occurrence; positions of later occurrences are computed
+ *                      on demand
+ */
+public record ParserOptions(boolean compactOccurs) {
+
+    public static ParserOptions defaults() {
+        return new ParserOptions(false);
+    }
+
+    public ParserOptions withCompactOccurs(boolean compactOccurs) {
+        return new ParserOptions(compactOccurs);
+    }
+}
@@ -0,0 +1,215 @@
+package org.example.parser.codec;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Codecs for big-endian binary fields: COMP / COMP-4 / BINARY and COMP-5 integers of 2, 4 or 8 bytes, and
+ * COMP-1 / COMP-2 IBM hexadecimal floating point. Reads go through byte-order-aware VarHandles, so values are
+ * read in one access regardless of the buffer's own byte order and never boxed. Both float formats decode to a
+ * double: a COMP-1 exponent reaches 16^63, far beyond the range of a Java float.
+ */
+public final class BinaryCodec {
+    private static final VarHandle SHORT = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * Reads a binary integer of 2, 4 or 8 bytes. Unsigned fields (PIC 9 without S) are zero-extended.
+     *
+     * @throws ArithmeticException if an unsigned 8-byte value is above Long.MAX_VALUE; read those with
+     *                             {@link #decode(ByteBuffer, int, int, boolean, int, int)}
+     */
+    public static long decode(ByteBuffer buffer, int offset, int length, boolean signed) {
+        return switch (length) {
+            case 2 -> {
+                short value = (short) SHORT.get(buffer, offset);
+                yield signed ? value : Short.toUnsignedLong(value);
+            }
+            case 4 -> {
+                int value = (int) INT.get(buffer, offset);
+                yield signed ? value : Integer.toUnsignedLong(value);
+            }
+            case 8 -> {
+                long value = (long) LONG.get(buffer, offset);
+                if (value < 0 && !signed) {
+                    throw new ArithmeticException("Unsigned binary value " + Long.toUnsignedString(value) +
+                            " does not fit in a long");
+                }
+                yield value;
+            }
+            default -> throw new IllegalArgumentException("Unsupported binary field length " + length);
+        };
+    }
+
+    /**
+     * Reads a binary integer and truncates it to the PIC digit count, as COMP fields compiled with TRUNC(STD)
+     * hold only {@code digits} significant decimal digits. A digit count of 0 or above 18 disables truncation.
+     */
+    public static long decode(ByteBuffer buffer, int offset, int length, boolean signed, int digits) {
+        if (digits <= 0 || digits >= POWERS_OF_TEN.length) {
+            return decode(buffer, offset, length, signed);
+        }
+        if (length == 8 && !signed) {
+            return Long.remainderUnsigned((long) LONG.get(buffer, offset), POWERS_OF_TEN[digits]);
+        }
+        return decode(buffer, offset, length, signed) % POWERS_OF_TEN[digits];
+    }
+
+    /**
+     * Reads a binary integer as a decimal at the given scale, truncated to {@code digits} as by
+     * {@link #decode(ByteBuffer, int, int, boolean, int)}. Unlike the long readers this covers unsigned 8-byte
+     * values above Long.MAX_VALUE.
+     */
+    public static BigDecimal decode(ByteBuffer buffer, int offset, int length, boolean signed, int digits,
+                                    int scale) {
+        if (length == 8 && !signed && (digits <= 0 || digits >= POWERS_OF_TEN.length)) {
+            long value = (long) LONG.get(buffer, offset);
+            if (value < 0) {
+                return new BigDecimal(new BigInteger(Long.toUnsignedString(value)), scale);
+            }
+        }
+        return BigDecimal.valueOf(decode(buffer, offset, length, signed, digits), scale);
+    }
+
+    /**
+     * Reads a COMP-1 field: sign bit, 7-bit excess-64 base-16 exponent and 24-bit fraction.
+     */
+    public static double decodeHexFloat(ByteBuffer buffer, int offset) {
+        int bits = (int) INT.get(buffer, offset);
+        double value = hexFloat(bits & 0x00FF_FFFFL, bits >>> 24 & 0x7F, 24);
+        return bits < 0 ? -value : value;
+    }
+
+    /**
+     * Reads a COMP-2 field: sign bit, 7-bit excess-64 base-16 exponent and 56-bit fraction.
+     */
+    public static double decodeHexDouble(ByteBuffer buffer, int offset) {
+        long bits = (long) LONG.get(buffer, offset);
+        double value = hexFloat(bits & 0x00FF_FFFF_FFFF_FFFFL, (int) (bits >>> 56) & 0x7F, 56);
+        return bits < 0 ? -value : value;
+    }
+
+    /**
+     * Writes a binary integer of 2, 4 or 8 bytes. A digit count between 1 and 18 limits the value to that many
+     * decimal digits, as for COMP fields; 0 allows the full range of the field, as for COMP-5.
+     *
+     * @throws ArithmeticException if the value does not fit
+     */
+    public static void encode(ByteBuffer buffer, int offset, int length, long value, boolean signed, int digits) {
+        if (digits > 0 && digits < POWERS_OF_TEN.length &&
+                (value >= POWERS_OF_TEN[digits] || value <= -POWERS_OF_TEN[digits])) {
+            throw overflow(value, length);
+        }
+        if (value < 0 && !signed) {
+            throw new ArithmeticException("Negative value " + value + " for an unsigned binary field");
+        }
+
+        switch (length) {
+            case 2 -> {
+                if (signed ? value != (short) value : value > 0xFFFF) {
+                    throw overflow(value, length);
+                }
+                SHORT.set(buffer, offset, (short) value);
+            }
+            case 4 -> {
+                if (signed ? value != (int) value : value > 0xFFFF_FFFFL) {
+                    throw overflow(value, length);
+                }
+                INT.set(buffer, offset, (int) value);
+            }
+            case 8 -> LONG.set(buffer, offset, value);
+            default -> throw new IllegalArgumentException("Unsupported binary field length " + length);
+        }
+    }
+
+    /**
+     * Writes a decimal at the given scale as a binary integer, the counterpart of
+     * {@link #decode(ByteBuffer, int, int, boolean, int, int)}. Unlike the long writer this covers unsigned
+     * 8-byte values above Long.MAX_VALUE.
+     *
+     * @throws ArithmeticException if the value has more fraction digits than {@code scale} or does not fit
+     */
+    public static void encode(ByteBuffer buffer, int offset, int length, BigDecimal value, boolean signed,
+                              int digits, int scale) {
+        BigInteger unscaled = value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue();
+        if (length == 8 && !signed && (digits <= 0 || digits >= POWERS_OF_TEN.length) &&
+                unscaled.signum() > 0 && unscaled.bitLength() == Long.SIZE) {
+            LONG.set(buffer, offset, unscaled.longValue());
+            return;
+        }
+        encode(buffer, offset, length, unscaled.longValueExact(), signed, digits);
+    }
+
+    /**
+     * Writes a COMP-1 field, rounding the fraction to 24 bits. Values too small for the format become zero.
+     *
+     * @throws ArithmeticException if the value is too large for the format
+     */
+    public static void encodeHexFloat(ByteBuffer buffer, int offset, double value) {
+        INT.set(buffer, offset, (int) toHexFloat(value, 24));
+    }
+
+    /**
+     * Writes a COMP-2 field. Every double fits the 56-bit fraction exactly unless it is too small for the format.
+     */
+    public static void encodeHexDouble(ByteBuffer buffer, int offset, double value) {
+        LONG.set(buffer, offset, toHexFloat(value, 56));
+    }
+
+    /**
+     * Returns the bits of an IBM hexadecimal float: sign, excess-64 exponent of 16 and a normalized fraction whose
+     * leading hex digit is not zero.
+     */
+    private static long toHexFloat(double value, int fractionBits) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new ArithmeticException(value + " cannot be stored as a hexadecimal float");
+        }
+        double magnitude = Math.abs(value);
+        if (magnitude == 0) {
+            return 0;
+        }
+
+        int exponent = Math.floorDiv(Math.getExponent(magnitude), 4) + 1;
+        long fraction = Math.round(Math.scalb(magnitude, fractionBits - 4 * exponent));
+        if (fraction >= 1L << fractionBits) {
+            // Rounding carried into a new hex digit
+            fraction >>>= 4;
+            exponent++;
+        }
+        if (exponent + 64 < 0) {
+            return 0;
+        }
+        if (exponent + 64 > 127) {
+            throw new ArithmeticException(value + " is too large for a hexadecimal float");
+        }
+
+        long sign = value < 0 ? 1L << (fractionBits + 7) : 0;
+        return sign | (long) (exponent + 64) << fractionBits | fraction;
+    }
+
+    private static ArithmeticException overflow(long value, int length) {
+        return new ArithmeticException("Value " + value + " does not fit a binary field of " + length + " bytes");
+    }
+
+    private static double hexFloat(long fraction, int exponent, int fractionBits) {
+        return Math.scalb((double) fraction, 4 * (exponent - 64) - fractionBits);
+    }
+}
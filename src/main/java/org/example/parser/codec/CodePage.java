@@ -0,0 +1,124 @@
+package org.example.parser.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Single-byte code page backed by precomputed 256-entry translation tables. The supported EBCDIC code pages
+ * (CP037, CP1047, CP500) cover the same repertoire as ISO-8859-1, so decoding translates each byte into a
+ * Latin-1 byte and builds the String from that, which is far cheaper on short fields than a CharsetDecoder.
+ * Only DISPLAY text goes through a code page; binary and packed bytes are never translated.
+ */
+public final class CodePage {
+    public static final CodePage ASCII = new CodePage("ISO-8859-1", false);
+    public static final CodePage CP037 = new CodePage("IBM037", true);
+    public static final CodePage CP1047 = new CodePage("IBM1047", true);
+    public static final CodePage CP500 = new CodePage("IBM500", true);
+
+    private static final byte SUBSTITUTE = '?';
+
+    private final String name;
+    private final boolean ebcdic;
+    private final byte[] toLatin1 = new byte[256];
+    private final byte[] fromLatin1 = new byte[256];
+    private final byte space;
+
+    private CodePage(String charsetName, boolean ebcdic) {
+        this.name = charsetName;
+        this.ebcdic = ebcdic;
+
+        byte[] all = new byte[256];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = (byte) i;
+        }
+
+        String decoded = new String(all, Charset.forName(charsetName));
+        for (int i = 0; i < decoded.length(); i++) {
+            char c = decoded.charAt(i);
+            toLatin1[i] = c <= 0xFF ? (byte) c : SUBSTITUTE;
+            if (c <= 0xFF) {
+                fromLatin1[c] = (byte) i;
+            }
+        }
+        this.space = fromLatin1[' '];
+    }
+
+    /**
+     * Resolves a code page by name, accepting forms such as {@code CP037}, {@code IBM-1047} or {@code ASCII}.
+     */
+    public static CodePage forName(String name) {
+        String normalized = name.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "");
+        return switch (normalized) {
+            case "ASCII", "USASCII", "ISO88591", "LATIN1" -> ASCII;
+            case "CP037", "IBM037", "CP37", "IBM37" -> CP037;
+            case "CP1047", "IBM1047" -> CP1047;
+            case "CP500", "IBM500" -> CP500;
+            default -> throw new IllegalArgumentException("Unsupported code page: " + name);
+        };
+    }
+
+    public String getName() { return name; }
+    public boolean isEbcdic() { return ebcdic; }
+
+    /** Returns the encoded space character, used to pad text fields. */
+    public byte getSpace() { return space; }
+
+    public char toChar(byte b) {
+        return (char) (toLatin1[b & 0xFF] & 0xFF);
+    }
+
+    public byte toByte(char c) {
+        return c <= 0xFF ? fromLatin1[c] : fromLatin1[SUBSTITUTE];
+    }
+
+    /**
+     * Translates {@code length} bytes into Latin-1 in {@code target}, starting at index 0.
+     */
+    public void toLatin1(ByteBuffer source, int offset, int length, byte[] target) {
+        source.get(offset, target, 0, length);
+        if (ebcdic) {
+            for (int i = 0; i < length; i++) {
+                target[i] = toLatin1[target[i] & 0xFF];
+            }
+        }
+    }
+
+    /**
+     * Decodes a text field, using {@code scratch} (at least {@code length} bytes) as the translation buffer.
+     */
+    public String decode(ByteBuffer source, int offset, int length, byte[] scratch) {
+        toLatin1(source, offset, length, scratch);
+        return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Decodes a text field into {@code target} without creating a String, returning the number of chars written.
+     */
+    public int decode(ByteBuffer source, int offset, int length, char[] target) {
+        for (int i = 0; i < length; i++) {
+            target[i] = (char) (toLatin1[source.get(offset + i) & 0xFF] & 0xFF);
+        }
+        return length;
+    }
+
+    /**
+     * Encodes text into a field of {@code length} bytes, padding with spaces. Like a COBOL MOVE, text longer than
+     * the field is truncated on the right. Characters outside the code page become '?'.
+     */
+    public void encode(CharSequence text, ByteBuffer target, int offset, int length) {
+        int count = Math.min(length, text.length());
+        for (int i = 0; i < count; i++) {
+            target.put(offset + i, toByte(text.charAt(i)));
+        }
+        for (int i = count; i < length; i++) {
+            target.put(offset + i, space);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
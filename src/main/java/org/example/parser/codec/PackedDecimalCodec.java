@@ -0,0 +1,197 @@
+package org.example.parser.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+
+/**
+ * Codec for COMP-3 / PACKED-DECIMAL fields: two BCD digits per byte with the sign in the low nibble of the
+ * last byte. Values of up to 18 digits decode straight into an unscaled long without allocating, which covers
+ * every field of up to 9 bytes and a 10-byte PIC S9(18) field, whose leading nibble is the zero pad digit;
+ * wider values fall back to BigDecimal. Encoding writes C/D signs for signed fields and F for unsigned ones.
+ */
+public final class PackedDecimalCodec {
+    /** Widest packed field, in bytes, decoded on the long path when its leading nibble is zero. */
+    public static final int MAX_LONG_LENGTH = 10;
+
+    private static final BigInteger LONG_CHUNK = BigInteger.valueOf(1_000_000_000_000_000_000L);
+    private static final int LONG_CHUNK_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private PackedDecimalCodec() {
+    }
+
+    public static int digitCount(int length) {
+        return length * 2 - 1;
+    }
+
+    /**
+     * Decodes the unscaled value of a packed field whose value fits in a long.
+     *
+     * @throws ArithmeticException if the value does not fit in a long
+     */
+    public static long decodeLong(ByteBuffer buffer, int offset, int length) {
+        if (!isLongPath(buffer, offset, length)) {
+            return decodeBigInteger(buffer, offset, length).longValueExact();
+        }
+
+        long value = 0;
+        int last = offset + length - 1;
+        for (int i = offset; i < last; i++) {
+            int b = buffer.get(i);
+            value = value * 100 + digit(b >>> 4 & 0x0F, i) * 10 + digit(b & 0x0F, i);
+        }
+
+        int b = buffer.get(last);
+        value = value * 10 + digit(b >>> 4 & 0x0F, last);
+        return isNegative(b & 0x0F, last) ? -value : value;
+    }
+
+    public static BigDecimal decode(ByteBuffer buffer, int offset, int length, int scale) {
+        if (isLongPath(buffer, offset, length)) {
+            return BigDecimal.valueOf(decodeLong(buffer, offset, length), scale);
+        }
+        return new BigDecimal(decodeBigInteger(buffer, offset, length), scale);
+    }
+
+    /**
+     * Returns whether a field holds at most 18 digits: any field of up to 9 bytes, or a 10-byte field whose
+     * leading nibble is zero.
+     */
+    private static boolean isLongPath(ByteBuffer buffer, int offset, int length) {
+        return length < MAX_LONG_LENGTH || length == MAX_LONG_LENGTH && (buffer.get(offset) & 0xF0) == 0;
+    }
+
+    /**
+     * Decodes fields too wide for a long by accumulating 18-digit chunks into a BigInteger.
+     */
+    private static BigInteger decodeBigInteger(ByteBuffer buffer, int offset, int length) {
+        BigInteger value = BigInteger.ZERO;
+        long chunk = 0;
+        int chunkDigits = 0;
+        int nibbles = digitCount(length);
+
+        for (int n = 0; n < nibbles; n++) {
+            int index = offset + (n >> 1);
+            int b = buffer.get(index);
+            int nibble = (n & 1) == 0 ? b >>> 4 & 0x0F : b & 0x0F;
+            chunk = chunk * 10 + digit(nibble, index);
+
+            if (++chunkDigits == LONG_CHUNK_DIGITS) {
+                value = value.multiply(LONG_CHUNK).add(BigInteger.valueOf(chunk));
+                chunk = 0;
+                chunkDigits = 0;
+            }
+        }
+
+        if (chunkDigits > 0) {
+            value = value.multiply(BigInteger.TEN.pow(chunkDigits)).add(BigInteger.valueOf(chunk));
+        }
+
+        int last = offset + length - 1;
+        return isNegative(buffer.get(last) & 0x0F, last) ? value.negate() : value;
+    }
+
+    /**
+     * Encodes an unscaled value into a packed field. Fields of up to {@link #MAX_LONG_LENGTH} bytes are written
+     * without allocating; a 10-byte field holds every long.
+     *
+     * @throws ArithmeticException if the value has more digits than the field holds, or is negative and the
+     *                             field unsigned
+     */
+    public static void encodeLong(ByteBuffer buffer, int offset, int length, long value, boolean signed) {
+        if (length > MAX_LONG_LENGTH) {
+            encode(buffer, offset, length, BigInteger.valueOf(value), signed);
+            return;
+        }
+        checkSign(value < 0, signed);
+        int digits = digitCount(length);
+        if (digits < POWERS_OF_TEN.length && (value >= POWERS_OF_TEN[digits] || value <= -POWERS_OF_TEN[digits])) {
+            throw overflow(value, length);
+        }
+
+        // Digits are taken from the negative side so that Long.MIN_VALUE needs no special case
+        long remaining = value < 0 ? value : -value;
+        int last = offset + length - 1;
+        int sign = value < 0 ? 0x0D : signed ? 0x0C : 0x0F;
+        for (int i = last; i >= offset; i--) {
+            int low = sign;
+            if (i != last) {
+                low = (int) -(remaining % 10);
+                remaining /= 10;
+            }
+            int high = (int) -(remaining % 10);
+            remaining /= 10;
+            buffer.put(i, (byte) (high << 4 | low));
+        }
+    }
+
+    /**
+     * Encodes a value at the given scale, rejecting values that would need rounding.
+     */
+    public static void encode(ByteBuffer buffer, int offset, int length, BigDecimal value, int scale, boolean signed) {
+        BigInteger unscaled = value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            encodeLong(buffer, offset, length, unscaled.longValue(), signed);
+        } else {
+            encode(buffer, offset, length, unscaled, signed);
+        }
+    }
+
+    private static void encode(ByteBuffer buffer, int offset, int length, BigInteger value, boolean signed) {
+        checkSign(value.signum() < 0, signed);
+        String digits = value.abs().toString();
+        int nibbles = digitCount(length);
+        if (digits.length() > nibbles) {
+            throw overflow(value, length);
+        }
+
+        int padding = nibbles - digits.length();
+        for (int n = 0; n < nibbles; n += 2) {
+            int high = n < padding ? 0 : digits.charAt(n - padding) - '0';
+            int low;
+            if (n + 1 == nibbles) {
+                low = value.signum() < 0 ? 0x0D : signed ? 0x0C : 0x0F;
+            } else {
+                low = n + 1 < padding ? 0 : digits.charAt(n + 1 - padding) - '0';
+            }
+            buffer.put(offset + n / 2, (byte) (high << 4 | low));
+        }
+    }
+
+    private static void checkSign(boolean negative, boolean signed) {
+        if (negative && !signed) {
+            throw new ArithmeticException("Negative value for an unsigned packed decimal field");
+        }
+    }
+
+    private static ArithmeticException overflow(Object value, int length) {
+        return new ArithmeticException("Value " + value + " does not fit a packed decimal field of " +
+                length + " bytes");
+    }
+
+    private static int digit(int nibble, int index) {
+        if (nibble > 9) {
+            throw new NumberFormatException("Invalid packed decimal digit 0x" +
+                    Integer.toHexString(nibble) + " at offset " + index);
+        }
+        return nibble;
+    }
+
+    private static boolean isNegative(int signNibble, int index) {
+        return switch (signNibble) {
+            case 0x0D, 0x0B -> true;
+            case 0x0C, 0x0F, 0x0A, 0x0E -> false;
+            default -> throw new NumberFormatException("Invalid packed decimal sign 0x" +
+                    Integer.toHexString(signNibble) + " at offset " + index);
+        };
+    }
+}
@@ -0,0 +1,325 @@
+package org.example.parser.codec;
+
+import org.example.parser.CobolField;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Codec for zoned decimal (DISPLAY numeric) fields. Digits are taken from the low nibble of each byte, which
+ * is the same for ASCII and EBCDIC, so no text decoding happens. The sign is either overpunched on the first or
+ * last digit or carried in a separate leading or trailing byte, as declared by the SIGN clause.
+ *
+ * <p>EBCDIC overpunch uses the zone nibble (C/F positive, D negative). ASCII accepts both the Micro Focus
+ * convention ('p' to 'y' negative) and translated EBCDIC ('{' and 'A' to 'I' positive, '}' and 'J' to 'R'
+ * negative).
+ *
+ * <p>Encoding writes the preferred form of each convention: F zones with C/D overpunch for EBCDIC, plain
+ * digits with the Micro Focus 'p' to 'y' overpunch for negative ASCII values.
+ */
+public final class ZonedDecimalCodec {
+    /** Widest zoned field, in digits, whose value always fits in a long. */
+    public static final int MAX_LONG_DIGITS = 18;
+
+    public enum Sign {
+        NONE,
+        TRAILING,
+        LEADING,
+        TRAILING_SEPARATE,
+        LEADING_SEPARATE;
+
+        public boolean isSeparate() {
+            return this == TRAILING_SEPARATE || this == LEADING_SEPARATE;
+        }
+
+        public static Sign of(CobolField field) {
+            if (!field.isSigned()) {
+                return NONE;
+            }
+            if (field.isSignSeparate()) {
+                return field.isSignLeading() ? LEADING_SEPARATE : TRAILING_SEPARATE;
+            }
+            return field.isSignLeading() ? LEADING : TRAILING;
+        }
+    }
+
+    private static final int NEGATIVE = 0x10;
+    private static final int INVALID = -1;
+    private static final byte[] EBCDIC_OVERPUNCH = new byte[256];
+    private static final byte[] ASCII_OVERPUNCH = new byte[256];
+    private static final BigInteger LONG_CHUNK = BigInteger.valueOf(1_000_000_000_000_000_000L);
+    private static final long[] POWERS_OF_TEN = new long[MAX_LONG_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+
+        Arrays.fill(EBCDIC_OVERPUNCH, (byte) INVALID);
+        Arrays.fill(ASCII_OVERPUNCH, (byte) INVALID);
+
+        for (int digit = 0; digit <= 9; digit++) {
+            for (int zone : new int[] {0xC0, 0xF0, 0xA0, 0xE0}) {
+                EBCDIC_OVERPUNCH[zone | digit] = (byte) digit;
+            }
+            for (int zone : new int[] {0xD0, 0xB0}) {
+                EBCDIC_OVERPUNCH[zone | digit] = (byte) (digit | NEGATIVE);
+            }
+
+            ASCII_OVERPUNCH['0' + digit] = (byte) digit;
+            ASCII_OVERPUNCH['p' + digit] = (byte) (digit | NEGATIVE);
+            if (digit > 0) {
+                ASCII_OVERPUNCH['A' + digit - 1] = (byte) digit;
+                ASCII_OVERPUNCH['J' + digit - 1] = (byte) (digit | NEGATIVE);
+            }
+        }
+        ASCII_OVERPUNCH['{'] = 0;
+        ASCII_OVERPUNCH['}'] = NEGATIVE;
+        ASCII_OVERPUNCH[' '] = 0;
+        EBCDIC_OVERPUNCH[0x40] = 0;
+    }
+
+    private ZonedDecimalCodec() {
+    }
+
+    public static int digitCount(int length, Sign sign) {
+        return sign.isSeparate() ? length - 1 : length;
+    }
+
+    /**
+     * Decodes the unscaled value of a zoned field of at most {@link #MAX_LONG_DIGITS} digits.
+     */
+    public static long decodeLong(ByteBuffer buffer, int offset, int length, Sign sign, boolean ebcdic) {
+        if (digitCount(length, sign) > MAX_LONG_DIGITS) {
+            return decodeBigInteger(buffer, offset, length, sign, ebcdic).longValueExact();
+        }
+
+        int end = offset + length;
+        long value = 0;
+        boolean negative = false;
+
+        switch (sign) {
+            case NONE -> {
+                for (int i = offset; i < end; i++) {
+                    value = value * 10 + digit(buffer.get(i), i);
+                }
+            }
+            case TRAILING -> {
+                for (int i = offset; i < end - 1; i++) {
+                    value = value * 10 + digit(buffer.get(i), i);
+                }
+                int punched = overpunch(buffer.get(end - 1), ebcdic, end - 1);
+                value = value * 10 + (punched & 0x0F);
+                negative = (punched & NEGATIVE) != 0;
+            }
+            case LEADING -> {
+                int punched = overpunch(buffer.get(offset), ebcdic, offset);
+                value = punched & 0x0F;
+                negative = (punched & NEGATIVE) != 0;
+                for (int i = offset + 1; i < end; i++) {
+                    value = value * 10 + digit(buffer.get(i), i);
+                }
+            }
+            case TRAILING_SEPARATE -> {
+                for (int i = offset; i < end - 1; i++) {
+                    value = value * 10 + digit(buffer.get(i), i);
+                }
+                negative = isMinus(buffer.get(end - 1), ebcdic, end - 1);
+            }
+            case LEADING_SEPARATE -> {
+                negative = isMinus(buffer.get(offset), ebcdic, offset);
+                for (int i = offset + 1; i < end; i++) {
+                    value = value * 10 + digit(buffer.get(i), i);
+                }
+            }
+        }
+
+        return negative ? -value : value;
+    }
+
+    public static BigDecimal decode(ByteBuffer buffer, int offset, int length, int scale, Sign sign, boolean ebcdic) {
+        if (digitCount(length, sign) <= MAX_LONG_DIGITS) {
+            return BigDecimal.valueOf(decodeLong(buffer, offset, length, sign, ebcdic), scale);
+        }
+        return new BigDecimal(decodeBigInteger(buffer, offset, length, sign, ebcdic), scale);
+    }
+
+    private static BigInteger decodeBigInteger(ByteBuffer buffer, int offset, int length, Sign sign, boolean ebcdic) {
+        int first = sign == Sign.LEADING_SEPARATE ? offset + 1 : offset;
+        int end = sign == Sign.TRAILING_SEPARATE ? offset + length - 1 : offset + length;
+        int punch = sign == Sign.LEADING ? first : sign == Sign.TRAILING ? end - 1 : -1;
+
+        BigInteger value = BigInteger.ZERO;
+        long chunk = 0;
+        int chunkDigits = 0;
+        boolean negative = false;
+
+        for (int i = first; i < end; i++) {
+            int digit;
+            if (i == punch) {
+                int punched = overpunch(buffer.get(i), ebcdic, i);
+                digit = punched & 0x0F;
+                negative = (punched & NEGATIVE) != 0;
+            } else {
+                digit = digit(buffer.get(i), i);
+            }
+
+            chunk = chunk * 10 + digit;
+            if (++chunkDigits == MAX_LONG_DIGITS) {
+                value = value.multiply(LONG_CHUNK).add(BigInteger.valueOf(chunk));
+                chunk = 0;
+                chunkDigits = 0;
+            }
+        }
+
+        if (chunkDigits > 0) {
+            value = value.multiply(BigInteger.TEN.pow(chunkDigits)).add(BigInteger.valueOf(chunk));
+        }
+
+        if (sign == Sign.LEADING_SEPARATE) {
+            negative = isMinus(buffer.get(offset), ebcdic, offset);
+        } else if (sign == Sign.TRAILING_SEPARATE) {
+            negative = isMinus(buffer.get(end), ebcdic, end);
+        }
+        return negative ? value.negate() : value;
+    }
+
+    /**
+     * Encodes an unscaled value into a zoned field of at most {@link #MAX_LONG_DIGITS} digits.
+     *
+     * @throws ArithmeticException if the value has more digits than the field holds, or is negative and the
+     *                             field unsigned
+     */
+    public static void encodeLong(ByteBuffer buffer, int offset, int length, long value, Sign sign, boolean ebcdic) {
+        int digits = digitCount(length, sign);
+        if (digits > MAX_LONG_DIGITS) {
+            encode(buffer, offset, length, BigInteger.valueOf(value), sign, ebcdic);
+            return;
+        }
+        checkSign(value < 0, sign);
+        if (value >= POWERS_OF_TEN[digits] || value <= -POWERS_OF_TEN[digits]) {
+            throw overflow(value, length);
+        }
+
+        int first = sign == Sign.LEADING_SEPARATE ? offset + 1 : offset;
+        int end = sign == Sign.TRAILING_SEPARATE ? offset + length - 1 : offset + length;
+        int zone = ebcdic ? 0xF0 : '0';
+        // Digits are taken from the negative side so that Long.MIN_VALUE needs no special case
+        long remaining = value < 0 ? value : -value;
+        for (int i = end - 1; i >= first; i--) {
+            buffer.put(i, (byte) (zone | (int) -(remaining % 10)));
+            remaining /= 10;
+        }
+        writeSign(buffer, offset, length, value < 0, sign, ebcdic);
+    }
+
+    /**
+     * Encodes a value at the given scale, rejecting values that would need rounding.
+     */
+    public static void encode(ByteBuffer buffer, int offset, int length, BigDecimal value, int scale, Sign sign,
+                              boolean ebcdic) {
+        BigDecimal scaled = value.setScale(scale, RoundingMode.UNNECESSARY);
+        if (digitCount(length, sign) <= MAX_LONG_DIGITS) {
+            encodeLong(buffer, offset, length, scaled.unscaledValue().longValueExact(), sign, ebcdic);
+        } else {
+            encode(buffer, offset, length, scaled.unscaledValue(), sign, ebcdic);
+        }
+    }
+
+    private static void encode(ByteBuffer buffer, int offset, int length, BigInteger value, Sign sign, boolean ebcdic) {
+        checkSign(value.signum() < 0, sign);
+        String digits = value.abs().toString();
+        int first = sign == Sign.LEADING_SEPARATE ? offset + 1 : offset;
+        int end = sign == Sign.TRAILING_SEPARATE ? offset + length - 1 : offset + length;
+        if (digits.length() > end - first) {
+            throw overflow(value, length);
+        }
+
+        int zone = ebcdic ? 0xF0 : '0';
+        int padding = end - first - digits.length();
+        for (int i = first; i < end; i++) {
+            int digit = i - first < padding ? 0 : digits.charAt(i - first - padding) - '0';
+            buffer.put(i, (byte) (zone | digit));
+        }
+        writeSign(buffer, offset, length, value.signum() < 0, sign, ebcdic);
+    }
+
+    /**
+     * Overpunches the first or last digit, or writes the separate sign byte. Positive EBCDIC values get a C zone
+     * so that signed fields read back as signed on the mainframe.
+     */
+    private static void writeSign(ByteBuffer buffer, int offset, int length, boolean negative, Sign sign,
+                                  boolean ebcdic) {
+        switch (sign) {
+            case NONE -> {
+            }
+            case TRAILING -> overpunch(buffer, offset + length - 1, negative, ebcdic);
+            case LEADING -> overpunch(buffer, offset, negative, ebcdic);
+            case TRAILING_SEPARATE -> buffer.put(offset + length - 1, separateSign(negative, ebcdic));
+            case LEADING_SEPARATE -> buffer.put(offset, separateSign(negative, ebcdic));
+        }
+    }
+
+    private static void overpunch(ByteBuffer buffer, int index, boolean negative, boolean ebcdic) {
+        int digit = buffer.get(index) & 0x0F;
+        if (ebcdic) {
+            buffer.put(index, (byte) ((negative ? 0xD0 : 0xC0) | digit));
+        } else if (negative) {
+            buffer.put(index, (byte) ('p' + digit));
+        }
+    }
+
+    private static byte separateSign(boolean negative, boolean ebcdic) {
+        if (ebcdic) {
+            return (byte) (negative ? 0x60 : 0x4E);
+        }
+        return (byte) (negative ? '-' : '+');
+    }
+
+    private static void checkSign(boolean negative, Sign sign) {
+        if (negative && sign == Sign.NONE) {
+            throw new ArithmeticException("Negative value for an unsigned zoned decimal field");
+        }
+    }
+
+    private static ArithmeticException overflow(Object value, int length) {
+        return new ArithmeticException("Value " + value + " does not fit a zoned decimal field of " +
+                length + " bytes");
+    }
+
+    private static int digit(byte b, int index) {
+        int digit = b & 0x0F;
+        if (digit > 9) {
+            throw invalid("digit", b, index);
+        }
+        return digit;
+    }
+
+    private static int overpunch(byte b, boolean ebcdic, int index) {
+        int punched = (ebcdic ? EBCDIC_OVERPUNCH : ASCII_OVERPUNCH)[b & 0xFF];
+        if (punched == INVALID) {
+            throw invalid("overpunched sign", b, index);
+        }
+        return punched;
+    }
+
+    private static boolean isMinus(byte b, boolean ebcdic, int index) {
+        int c = b & 0xFF;
+        if (ebcdic ? c == 0x60 : c == '-') {
+            return true;
+        }
+        if (ebcdic ? c == 0x4E || c == 0x40 : c == '+' || c == ' ') {
+            return false;
+        }
+        throw invalid("separate sign", b, index);
+    }
+
+    private static NumberFormatException invalid(String what, byte b, int index) {
+        return new NumberFormatException("Invalid zoned decimal " + what + " 0x" +
+                Integer.toHexString(b & 0xFF) + " at offset " + index);
+    }
+}
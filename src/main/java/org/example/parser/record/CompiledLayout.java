@@ -0,0 +1,237 @@
+package org.example.parser.record;
+
+import org.example.parser.CobolField;
+import org.example.parser.CopybookParser;
+import org.example.parser.codec.ZonedDecimalCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flattened, read-only view of a record layout. Every elementary field is reduced to an entry in a set of
+ * parallel primitive arrays (offset, length, type, digits, scale, sign), so decoding a record never walks the
+ * CobolField tree or looks fields up by name. Resolve field indexes once with {@link #indexOf(String)} and
+ * decode records with a {@link RecordDecoder}.
+ *
+ * <p>Fields inside OCCURS tables are expanded per occurrence and named {@code NAME(n)}, or {@code NAME(i,j)}
+ * for nested tables, in both the default and the compact OCCURS mode; FILLER is skipped.
+ * Offsets are zero-based and relative to the start of the record.
+ *
+ * <p>Instances are immutable once compiled, so one layout can be shared by any number of decoder threads;
+ * only the {@link RecordDecoder} flyweights are per thread.
+ */
+public final class CompiledLayout {
+    private final String name;
+    private final int recordLength;
+    private final String[] names;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final FieldType[] types;
+    private final int[] digits;
+    private final int[] scales;
+    private final boolean[] signed;
+    private final ZonedDecimalCodec.Sign[] signs;
+    private final Map<String, Integer> indexByName;
+
+    private CompiledLayout(String name, int recordLength, Collector collector) {
+        this(name, recordLength, collector.names.toArray(new String[0]),
+                Arrays.copyOf(collector.offsets, collector.names.size()),
+                Arrays.copyOf(collector.lengths, collector.names.size()),
+                collector.types.toArray(new FieldType[0]),
+                Arrays.copyOf(collector.digits, collector.names.size()),
+                Arrays.copyOf(collector.scales, collector.names.size()),
+                Arrays.copyOf(collector.signed, collector.names.size()),
+                collector.signs.toArray(new ZonedDecimalCodec.Sign[0]));
+    }
+
+    /**
+     * Creates a layout from parallel arrays, which are taken over without copying.
+     */
+    CompiledLayout(String name, int recordLength, String[] names, int[] offsets, int[] lengths, FieldType[] types,
+                   int[] digits, int[] scales, boolean[] signed, ZonedDecimalCodec.Sign[] signs) {
+        int count = names.length;
+        this.name = name;
+        this.recordLength = recordLength;
+        this.names = names;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.types = types;
+        this.digits = digits;
+        this.scales = scales;
+        this.signed = signed;
+        this.signs = signs;
+        this.indexByName = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            indexByName.putIfAbsent(names[i], i);
+        }
+    }
+
+    public static CompiledLayout compile(CopybookParser.RecordLayout layout) {
+        Collector collector = new Collector(layout.getStartPosition(), layout.getLength());
+        collector.collect(layout.getFields());
+        return new CompiledLayout(layout.getName(), layout.getLength(), collector);
+    }
+
+    /**
+     * Compiles every record layout of a parse result. The parser gives each 01 record of a copybook without
+     * REDEFINES its own layout; only a result without any is compiled from its reference fields.
+     *
+     * @throws IllegalArgumentException if the result has no layout and its reference fields hold nothing to
+     *                                  decode, as a decoder built on an empty layout would silently do nothing
+     */
+    public static List<CompiledLayout> compile(CopybookParser.ParseResult result) {
+        List<CompiledLayout> compiled = new ArrayList<>();
+        for (CopybookParser.RecordLayout layout : result.getRecordLayouts()) {
+            compiled.add(compile(layout));
+        }
+
+        if (compiled.isEmpty()) {
+            Collector collector = new Collector(1, result.getTotalLength());
+            collector.collect(result.getFields());
+            if (collector.names.isEmpty()) {
+                throw new IllegalArgumentException("Copybook " + result.getFileName() + " has no fields to decode");
+            }
+            compiled.add(new CompiledLayout(result.getFileName(), result.getTotalLength(), collector));
+        }
+        return compiled;
+    }
+
+    public String getName() { return name; }
+    public int getRecordLength() { return recordLength; }
+    public int getFieldCount() { return names.length; }
+
+    public String getFieldName(int field) { return names[field]; }
+    public int getOffset(int field) { return offsets[field]; }
+    public int getLength(int field) { return lengths[field]; }
+    public FieldType getType(int field) { return types[field]; }
+    public int getDigits(int field) { return digits[field]; }
+    public int getScale(int field) { return scales[field]; }
+    public boolean isSigned(int field) { return signed[field]; }
+    public ZonedDecimalCodec.Sign getSign(int field) { return signs[field]; }
+
+    /**
+     * Returns whether every value of a numeric field fits an unscaled long: fields of at most 18 digits, except
+     * unsigned 8-byte COMP-5 fields, which reach 2^64 - 1.
+     */
+    public boolean fitsLong(int field) {
+        return digits[field] <= 18 &&
+                !(types[field] == FieldType.NATIVE_BINARY && lengths[field] == 8 && !signed[field]);
+    }
+
+    /**
+     * Returns the index of the first field with the given name, or -1 when the layout has no such field.
+     */
+    public int indexOf(String fieldName) {
+        Integer index = indexByName.get(fieldName);
+        return index != null ? index : -1;
+    }
+
+    int maxFieldLength() {
+        int max = 0;
+        for (int length : lengths) {
+            max = Math.max(max, length);
+        }
+        return max;
+    }
+
+    private static class Collector {
+        private final int basePosition;
+        private final int recordLength;
+        private final List<String> names = new ArrayList<>();
+        private final List<FieldType> types = new ArrayList<>();
+        private final List<ZonedDecimalCodec.Sign> signs = new ArrayList<>();
+        private int[] offsets = new int[16];
+        private int[] lengths = new int[16];
+        private int[] digits = new int[16];
+        private int[] scales = new int[16];
+        private boolean[] signed = new boolean[16];
+
+        Collector(int basePosition, int recordLength) {
+            this.basePosition = basePosition;
+            this.recordLength = recordLength;
+        }
+
+        void collect(List<CobolField> fields) {
+            collect(fields, 0, "");
+        }
+
+        /**
+         * Collects elementary fields shifted by {@code shift} bytes, appending {@code subscripts} (such as
+         * {@code 2,3}) to names inside compact OCCURS tables.
+         */
+        private void collect(List<CobolField> fields, int shift, String subscripts) {
+            for (CobolField field : fields) {
+                if (field.isCompactOccurs()) {
+                    for (int i = 1; i <= field.getOccursCount(); i++) {
+                        String occurrence = subscripts.isEmpty() ? String.valueOf(i) : subscripts + "," + i;
+                        int occurrenceShift = shift + (i - 1) * field.getOccursStride();
+                        if (field.isElementary()) {
+                            add(field.getName() + "(" + occurrence + ")", field.getStartPosition() + occurrenceShift,
+                                    field.getLength(), field);
+                        } else {
+                            collect(field.getChildren(), occurrenceShift, occurrence);
+                        }
+                    }
+                    continue;
+                }
+
+                if (!field.getArrayElements().isEmpty()) {
+                    for (CobolField.ArrayElement element : field.getArrayElements()) {
+                        for (CobolField.FieldPosition position : element.getFields()) {
+                            add(subscript(position.getName(), element.getIndex()),
+                                    position.getStartPosition() + shift, position.getLength(), position.getSource());
+                        }
+                    }
+                } else if (field.isElementary()) {
+                    String name = subscripts.isEmpty() ? field.getName() : field.getName() + "(" + subscripts + ")";
+                    add(name, field.getStartPosition() + shift, field.getLength(), field);
+                }
+                collect(field.getChildren(), shift, subscripts);
+            }
+        }
+
+        /**
+         * Puts the index of the enclosing occurrence in front of any nested subscripts already in the name, so
+         * {@code NAME(3)} in element 2 becomes {@code NAME(2,3)}.
+         */
+        private static String subscript(String name, int index) {
+            int open = name.indexOf('(');
+            return open < 0 ? name + "(" + index + ")"
+                    : name.substring(0, open + 1) + index + "," + name.substring(open + 1);
+        }
+
+        private void add(String name, int startPosition, int length, CobolField field) {
+            if (name.startsWith("FILLER")) {
+                return;
+            }
+
+            int offset = startPosition - basePosition;
+            if (offset < 0 || length <= 0 || offset + length > recordLength) {
+                throw new IllegalArgumentException("Field " + name + " at position " + startPosition +
+                        " (length " + length + ") does not fit in a record of " + recordLength + " bytes");
+            }
+
+            int index = names.size();
+            if (index == offsets.length) {
+                int capacity = index * 2;
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                digits = Arrays.copyOf(digits, capacity);
+                scales = Arrays.copyOf(scales, capacity);
+                signed = Arrays.copyOf(signed, capacity);
+            }
+
+            names.add(name);
+            types.add(FieldType.of(field));
+            signs.add(ZonedDecimalCodec.Sign.of(field));
+            offsets[index] = offset;
+            lengths[index] = length;
+            digits[index] = field.getDigits();
+            scales[index] = field.getDecimalPlaces();
+            signed[index] = field.isSigned();
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package org.example.parser.record;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the class file behind {@link GeneratedRecordDecoder#generate}: a final subclass of
+ * {@link GeneratedRecordDecoder} whose methods decode each field of one layout with straight-line code. As the
+ * code never branches, the class needs no stack map frames and a constant pool and a Code attribute are all
+ * there is to write.
+ */
+final class DecoderGenerator {
+    /**
+     * Fields decoded per generated method. HotSpot does not compile methods over 8000 bytes of bytecode and
+     * stops inlining in large ones, so wide layouts are split into methods the JIT still treats as small.
+     */
+    static final int FIELDS_PER_METHOD = 64;
+
+    private static final int CLASS_VERSION = 65;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_PROTECTED = 0x0004;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC = 0x12;
+    private static final int LDC_W = 0x13;
+    private static final int ILOAD_2 = 0x1c;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ALOAD_3 = 0x2d;
+    private static final int LASTORE = 0x50;
+    private static final int AASTORE = 0x53;
+    private static final int IADD = 0x60;
+    private static final int D2L = 0x8f;
+    private static final int RETURN = 0xb1;
+    private static final int GETSTATIC = 0xb2;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+
+    private static final String SUPER = "org/example/parser/record/GeneratedRecordDecoder";
+    private static final String BINARY = "org/example/parser/codec/BinaryCodec";
+    private static final String PACKED = "org/example/parser/codec/PackedDecimalCodec";
+    private static final String ZONED = "org/example/parser/codec/ZonedDecimalCodec";
+    private static final String SIGN = "org/example/parser/codec/ZonedDecimalCodec$Sign";
+    private static final String BUFFER = "Ljava/nio/ByteBuffer;";
+    private static final String DECIMAL = "Ljava/math/BigDecimal;";
+    private static final String FIELDS_DESCRIPTOR = "(" + BUFFER + "I[Ljava/lang/Object;)V";
+    private static final String NUMBERS_DESCRIPTOR = "(" + BUFFER + "I[J)V";
+
+    private final CompiledLayout layout;
+    private final boolean ebcdic;
+    private final String className;
+    private final ConstantPool pool = new ConstantPool();
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    private int methodCount;
+
+    private DecoderGenerator(CompiledLayout layout, boolean ebcdic) {
+        this.layout = layout;
+        this.ebcdic = ebcdic;
+        this.className = "org/example/parser/record/" + (ebcdic ? "EbcdicDecoder$" : "AsciiDecoder$") +
+                layout.getName().replaceAll("[^A-Za-z0-9]", "_");
+    }
+
+    /**
+     * Returns the class file of a decoder for {@code layout}, for text in an EBCDIC or an ASCII based code page.
+     */
+    static byte[] generate(CompiledLayout layout, boolean ebcdic) {
+        try {
+            return new DecoderGenerator(layout, ebcdic).generate();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] generate() throws IOException {
+        int thisClass = pool.classRef(className);
+        int superClass = pool.classRef(SUPER);
+
+        Code constructor = new Code();
+        constructor.op(ALOAD_0).op(ALOAD_1).op(ALOAD_2).op(INVOKESPECIAL).u2(pool.methodRef(SUPER, "<init>",
+                "(Lorg/example/parser/record/CompiledLayout;Lorg/example/parser/codec/CodePage;)V"));
+        constructor.op(RETURN);
+        method(ACC_PUBLIC, "<init>",
+                "(Lorg/example/parser/record/CompiledLayout;Lorg/example/parser/codec/CodePage;)V", constructor, 3);
+
+        dispatch("decodeFields", FIELDS_DESCRIPTOR, false);
+        dispatch("decodeNumbers", NUMBERS_DESCRIPTOR, true);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(CLASS_VERSION);
+        pool.writeTo(out);
+        out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(methodCount);
+        methods.writeTo(out);
+        out.writeShort(0);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the protected entry point {@code name}, which calls one private method per block of
+     * {@link #FIELDS_PER_METHOD} fields.
+     */
+    private void dispatch(String name, String descriptor, boolean numbers) throws IOException {
+        Code entry = new Code();
+        int fieldCount = layout.getFieldCount();
+        for (int first = 0, block = 0; first < fieldCount; first += FIELDS_PER_METHOD, block++) {
+            int end = Math.min(fieldCount, first + FIELDS_PER_METHOD);
+            Code code = new Code();
+            for (int field = first; field < end; field++) {
+                if (numbers) {
+                    number(code, field);
+                } else {
+                    value(code, field);
+                }
+            }
+            code.op(RETURN);
+            method(ACC_PRIVATE, name + block, descriptor, code, 4);
+
+            entry.op(ALOAD_0).op(ALOAD_1).op(ILOAD_2).op(ALOAD_3)
+                    .op(INVOKESPECIAL).u2(pool.methodRef(className, name + block, descriptor));
+        }
+        entry.op(RETURN);
+        method(ACC_PROTECTED, name, descriptor, entry, 4);
+    }
+
+    /**
+     * {@code values[field] = <value of field>}, with the types of {@link RecordDecoder#getValue(int)}.
+     */
+    private void value(Code code, int field) {
+        code.op(ALOAD_3);
+        push(code, field);
+        switch (layout.getType(field)) {
+            case ALPHANUMERIC -> {
+                code.op(ALOAD_0);
+                position(code, field);
+                push(code, layout.getLength(field));
+                code.op(INVOKEVIRTUAL).u2(pool.methodRef(SUPER, "text", "(" + BUFFER + "II)Ljava/lang/String;"));
+            }
+            case FLOAT, DOUBLE -> {
+                floating(code, field);
+                code.op(INVOKESTATIC).u2(pool.methodRef("java/lang/Double", "valueOf", "(D)Ljava/lang/Double;"));
+            }
+            default -> {
+                if (layout.getScale(field) > 0 || !layout.fitsLong(field)) {
+                    decimal(code, field);
+                } else {
+                    unscaled(code, field);
+                    code.op(INVOKESTATIC).u2(pool.methodRef("java/lang/Long", "valueOf", "(J)Ljava/lang/Long;"));
+                }
+            }
+        }
+        code.op(AASTORE);
+    }
+
+    /**
+     * {@code values[field] = <unscaled value of field>}, as {@link RecordDecoder#getLong(int)}; nothing for text.
+     */
+    private void number(Code code, int field) {
+        if (!layout.getType(field).isNumeric()) {
+            return;
+        }
+        code.op(ALOAD_3);
+        push(code, field);
+        unscaled(code, field);
+        code.op(LASTORE);
+    }
+
+    private void unscaled(Code code, int field) {
+        int length = layout.getLength(field);
+        switch (layout.getType(field)) {
+            case ZONED_DECIMAL -> {
+                position(code, field);
+                push(code, length);
+                sign(code, field);
+                code.op(INVOKESTATIC).u2(pool.methodRef(ZONED, "decodeLong",
+                        "(" + BUFFER + "IIL" + SIGN + ";Z)J"));
+            }
+            case PACKED_DECIMAL -> {
+                position(code, field);
+                push(code, length);
+                code.op(INVOKESTATIC).u2(pool.methodRef(PACKED, "decodeLong", "(" + BUFFER + "II)J"));
+            }
+            case BINARY -> {
+                position(code, field);
+                push(code, length);
+                push(code, layout.isSigned(field) ? 1 : 0);
+                push(code, layout.getDigits(field));
+                code.op(INVOKESTATIC).u2(pool.methodRef(BINARY, "decode", "(" + BUFFER + "IIZI)J"));
+            }
+            case NATIVE_BINARY -> {
+                position(code, field);
+                push(code, length);
+                push(code, layout.isSigned(field) ? 1 : 0);
+                code.op(INVOKESTATIC).u2(pool.methodRef(BINARY, "decode", "(" + BUFFER + "IIZ)J"));
+            }
+            case FLOAT, DOUBLE -> {
+                floating(code, field);
+                code.op(D2L);
+            }
+            case ALPHANUMERIC -> throw new IllegalStateException("Field " + layout.getFieldName(field) +
+                    " is not numeric");
+        }
+    }
+
+    private void decimal(Code code, int field) {
+        int length = layout.getLength(field);
+        int scale = layout.getScale(field);
+        switch (layout.getType(field)) {
+            case PACKED_DECIMAL -> {
+                position(code, field);
+                push(code, length);
+                push(code, scale);
+                code.op(INVOKESTATIC).u2(pool.methodRef(PACKED, "decode", "(" + BUFFER + "III)" + DECIMAL));
+            }
+            case ZONED_DECIMAL -> {
+                position(code, field);
+                push(code, length);
+                push(code, scale);
+                sign(code, field);
+                code.op(INVOKESTATIC).u2(pool.methodRef(ZONED, "decode",
+                        "(" + BUFFER + "IIIL" + SIGN + ";Z)" + DECIMAL));
+            }
+            case BINARY, NATIVE_BINARY -> {
+                position(code, field);
+                push(code, length);
+                push(code, layout.isSigned(field) ? 1 : 0);
+                push(code, layout.getType(field) == FieldType.BINARY ? layout.getDigits(field) : 0);
+                push(code, scale);
+                code.op(INVOKESTATIC).u2(pool.methodRef(BINARY, "decode", "(" + BUFFER + "IIZII)" + DECIMAL));
+            }
+            default -> {
+                unscaled(code, field);
+                push(code, scale);
+                code.op(INVOKESTATIC).u2(pool.methodRef("java/math/BigDecimal", "valueOf", "(JI)" + DECIMAL));
+            }
+        }
+    }
+
+    /**
+     * Pushes the value of a FLOAT or DOUBLE field as a double.
+     */
+    private void floating(Code code, int field) {
+        position(code, field);
+        if (layout.getType(field) == FieldType.FLOAT) {
+            code.op(INVOKESTATIC).u2(pool.methodRef(BINARY, "decodeHexFloat", "(" + BUFFER + "I)D"));
+        } else {
+            code.op(INVOKESTATIC).u2(pool.methodRef(BINARY, "decodeHexDouble", "(" + BUFFER + "I)D"));
+        }
+    }
+
+    /**
+     * Pushes the buffer and the absolute position of a field: the record offset plus a constant.
+     */
+    private void position(Code code, int field) {
+        code.op(ALOAD_1).op(ILOAD_2);
+        int offset = layout.getOffset(field);
+        if (offset != 0) {
+            push(code, offset);
+            code.op(IADD);
+        }
+    }
+
+    /**
+     * Pushes the field's sign convention and whether text is EBCDIC.
+     */
+    private void sign(Code code, int field) {
+        String sign = layout.getSign(field).name();
+        code.op(GETSTATIC).u2(pool.fieldRef(SIGN, sign, "L" + SIGN + ";"));
+        push(code, ebcdic ? 1 : 0);
+    }
+
+    private void push(Code code, int value) {
+        if (value >= -1 && value <= 5) {
+            code.op(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            code.op(BIPUSH).op(value & 0xFF);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            code.op(SIPUSH).u2(value & 0xFFFF);
+        } else {
+            int index = pool.integer(value);
+            if (index <= 0xFF) {
+                code.op(LDC).op(index);
+            } else {
+                code.op(LDC_W).u2(index);
+            }
+        }
+    }
+
+    private void method(int access, String name, String descriptor, Code code, int maxLocals) throws IOException {
+        DataOutputStream out = new DataOutputStream(methods);
+        out.writeShort(access);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(descriptor));
+        out.writeShort(1);
+        out.writeShort(pool.utf8("Code"));
+        out.writeInt(12 + code.size());
+        // Enough for the widest call: values, index, buffer, position, length, scale, sign and EBCDIC flag
+        out.writeShort(10);
+        out.writeShort(maxLocals);
+        out.writeInt(code.size());
+        code.writeTo(out);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.flush();
+        methodCount++;
+    }
+
+    private static final class Code extends ByteArrayOutputStream {
+        Code op(int opcode) {
+            write(opcode);
+            return this;
+        }
+
+        Code u2(int value) {
+            write(value >>> 8);
+            write(value);
+            return this;
+        }
+    }
+
+    /**
+     * Class file constant pool; equal constants share one entry.
+     */
+    private static final class ConstantPool {
+        private static final int UTF8 = 1;
+        private static final int INTEGER = 3;
+        private static final int CLASS = 7;
+        private static final int FIELD = 9;
+        private static final int METHOD = 10;
+        private static final int NAME_AND_TYPE = 12;
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            return entry("U" + value, () -> {
+                out.writeByte(UTF8);
+                out.writeUTF(value);
+            });
+        }
+
+        int integer(int value) {
+            return entry("I" + value, () -> {
+                out.writeByte(INTEGER);
+                out.writeInt(value);
+            });
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return entry("C" + internalName, () -> {
+                out.writeByte(CLASS);
+                out.writeShort(name);
+            });
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            return member(METHOD, owner, name, descriptor);
+        }
+
+        int fieldRef(String owner, String name, String descriptor) {
+            return member(FIELD, owner, name, descriptor);
+        }
+
+        private int member(int tag, String owner, String name, String descriptor) {
+            int ownerIndex = classRef(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = entry("N" + name + ' ' + descriptor, () -> {
+                out.writeByte(NAME_AND_TYPE);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+            return entry("M" + tag + owner + '.' + name + descriptor, () -> {
+                out.writeByte(tag);
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        private int entry(String key, Writer writer) {
+            Integer index = indexes.get(key);
+            if (index != null) {
+                return index;
+            }
+            if (count > 0xFFFF) {
+                throw new IllegalStateException("Too many constants for one decoder class");
+            }
+            try {
+                writer.write();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            indexes.put(key, count);
+            return count++;
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            out.flush();
+            target.writeShort(count);
+            bytes.writeTo(target);
+        }
+
+        private interface Writer {
+            void write() throws IOException;
+        }
+    }
+}
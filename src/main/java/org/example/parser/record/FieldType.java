@@ -0,0 +1,31 @@
+package org.example.parser.record;
+
+import org.example.parser.CobolField;
+
+/**
+ * Physical encoding of an elementary field, resolved once when a layout is compiled.
+ */
+public enum FieldType {
+    ALPHANUMERIC,
+    ZONED_DECIMAL,
+    PACKED_DECIMAL,
+    BINARY,
+    NATIVE_BINARY,
+    FLOAT,
+    DOUBLE;
+
+    public boolean isNumeric() {
+        return this != ALPHANUMERIC;
+    }
+
+    public static FieldType of(CobolField field) {
+        return switch (field.getUsageType()) {
+            case COMPUTATIONAL_3, PACKED_DECIMAL -> PACKED_DECIMAL;
+            case COMPUTATIONAL, COMPUTATIONAL_4, BINARY -> BINARY;
+            case COMPUTATIONAL_5, INDEX, POINTER -> NATIVE_BINARY;
+            case COMPUTATIONAL_1 -> FLOAT;
+            case COMPUTATIONAL_2 -> DOUBLE;
+            case DISPLAY -> "NUMBER".equals(field.getDataType()) ? ZONED_DECIMAL : ALPHANUMERIC;
+        };
+    }
+}
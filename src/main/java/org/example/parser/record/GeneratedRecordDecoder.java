@@ -0,0 +1,86 @@
+package org.example.parser.record;
+
+import org.example.parser.codec.CodePage;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Decoder compiled to bytecode for one layout. {@link #generate} emits a hidden class whose methods read every
+ * field with its offset, length, scale and sign as constants and call the codec for its type directly, without
+ * looking anything up in the layout or switching on the field type. The JIT therefore sees one straight-line
+ * method per layout that it can inline and optimize as a whole, where {@link RecordDecoder} dispatches on the
+ * type of every field it reads.
+ *
+ * <p>Values are the same as those of {@link RecordDecoder#decode(Object[])} and
+ * {@link RecordDecoder#getLong(int)}. Generating a decoder costs a class definition, so generate one per layout
+ * and code page and share it: instances keep only a scratch buffer for text and are otherwise stateless, but
+ * that buffer makes them not thread-safe.
+ */
+public abstract class GeneratedRecordDecoder {
+    private final CompiledLayout layout;
+    private final CodePage codePage;
+    private final byte[] scratch;
+
+    protected GeneratedRecordDecoder(CompiledLayout layout, CodePage codePage) {
+        this.layout = layout;
+        this.codePage = codePage;
+        this.scratch = new byte[Math.max(1, layout.maxFieldLength())];
+    }
+
+    /**
+     * Generates, defines and instantiates a decoder class for {@code layout}.
+     */
+    public static GeneratedRecordDecoder generate(CompiledLayout layout, CodePage codePage) {
+        byte[] classFile = DecoderGenerator.generate(layout, codePage.isEbcdic());
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(),
+                    MethodType.methodType(void.class, CompiledLayout.class, CodePage.class));
+            return (GeneratedRecordDecoder) constructor.invoke(layout, codePage);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot generate a decoder for layout " + layout.getName(), e);
+        }
+    }
+
+    public CompiledLayout getLayout() { return layout; }
+    public CodePage getCodePage() { return codePage; }
+
+    /**
+     * Decodes every field of the record at {@code offset} into {@code values}, which must hold at least
+     * {@link CompiledLayout#getFieldCount()} elements.
+     */
+    public final Object[] decode(ByteBuffer buffer, int offset, Object[] values) {
+        Objects.checkFromIndexSize(offset, layout.getRecordLength(), buffer.limit());
+        Objects.checkFromIndexSize(0, layout.getFieldCount(), values.length);
+        decodeFields(buffer, offset, values);
+        return values;
+    }
+
+    /**
+     * Decodes the unscaled value of every numeric field of the record at {@code offset} into {@code values},
+     * without allocating. Elements of alphanumeric fields are left untouched.
+     */
+    public final long[] decodeLongs(ByteBuffer buffer, int offset, long[] values) {
+        Objects.checkFromIndexSize(offset, layout.getRecordLength(), buffer.limit());
+        Objects.checkFromIndexSize(0, layout.getFieldCount(), values.length);
+        decodeNumbers(buffer, offset, values);
+        return values;
+    }
+
+    protected abstract void decodeFields(ByteBuffer buffer, int offset, Object[] values);
+
+    protected abstract void decodeNumbers(ByteBuffer buffer, int offset, long[] values);
+
+    /**
+     * Decodes a text field; called by the generated code.
+     */
+    protected final String text(ByteBuffer buffer, int position, int length) {
+        return codePage.decode(buffer, position, length, scratch);
+    }
+}
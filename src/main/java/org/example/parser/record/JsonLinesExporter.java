@@ -0,0 +1,135 @@
+package org.example.parser.record;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.example.parser.CopybookParser;
+import org.example.parser.codec.CodePage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * Converts fixed-length data records to JSON Lines, one object per record keyed by field name. All records go
+ * through a single JsonGenerator; field names are pre-encoded once per layout, text is decoded into a reused
+ * char buffer with trailing spaces trimmed, and scaled numbers are formatted without creating BigDecimals, so
+ * memory stays bounded no matter how many records are converted.
+ */
+public final class JsonLinesExporter {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final CompiledLayout layout;
+    private final CodePage codePage;
+    private final SerializedString[] fieldNames;
+    private final char[] text;
+    private final char[] number = new char[48];
+
+    public JsonLinesExporter(CompiledLayout layout) {
+        this(layout, CodePage.ASCII);
+    }
+
+    public JsonLinesExporter(CompiledLayout layout, CodePage codePage) {
+        this.layout = layout;
+        this.codePage = codePage;
+        this.fieldNames = new SerializedString[layout.getFieldCount()];
+        for (int i = 0; i < fieldNames.length; i++) {
+            fieldNames[i] = new SerializedString(layout.getFieldName(i));
+        }
+        this.text = new char[Math.max(1, layout.maxFieldLength())];
+    }
+
+    /**
+     * Parses the copybook and exports the data file with its first record layout.
+     */
+    public static long export(Path copybook, Path dataFile, CodePage codePage, OutputStream out) throws IOException {
+        CopybookParser.ParseResult result = new CopybookParser().parseCopybook(copybook);
+        return new JsonLinesExporter(CompiledLayout.compile(result).get(0), codePage).export(dataFile, out);
+    }
+
+    /**
+     * Writes every record of the data file to {@code out} as UTF-8 JSON Lines and returns the record count.
+     * The stream is flushed but not closed.
+     */
+    public long export(Path dataFile, OutputStream out) throws IOException {
+        try (MappedRecordReader reader = new MappedRecordReader(layout, dataFile, codePage);
+             JsonGenerator generator = createGenerator(out)) {
+            while (reader.next()) {
+                try {
+                    write(reader.record(), generator);
+                } catch (NumberFormatException | ArithmeticException e) {
+                    throw new IOException("Record " + reader.getRecordNumber() + ": " + e.getMessage(), e);
+                }
+            }
+            return reader.getRecordCount();
+        }
+    }
+
+    /**
+     * Creates a generator suitable for {@link #write}: UTF-8, no root separator, target stream left open.
+     */
+    public static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    /**
+     * Writes the record the decoder is positioned on as one JSON object followed by a newline.
+     */
+    public void write(RecordDecoder record, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < fieldNames.length; i++) {
+            generator.writeFieldName(fieldNames[i]);
+            writeValue(record, i, generator);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeValue(RecordDecoder record, int field, JsonGenerator generator) throws IOException {
+        switch (layout.getType(field)) {
+            case ALPHANUMERIC -> {
+                int length = record.getChars(field, text);
+                while (length > 0 && text[length - 1] == ' ') {
+                    length--;
+                }
+                generator.writeString(text, 0, length);
+            }
+            case FLOAT, DOUBLE -> generator.writeNumber(record.getDouble(field));
+            default -> {
+                if (!layout.fitsLong(field)) {
+                    generator.writeNumber(record.getDecimal(field));
+                } else {
+                    int start = formatScaled(record.getLong(field), layout.getScale(field));
+                    generator.writeNumber(number, start, number.length - start);
+                }
+            }
+        }
+    }
+
+    /**
+     * Formats an unscaled value right-aligned into {@link #number}, returning the index of the first char.
+     */
+    private int formatScaled(long unscaled, int scale) {
+        int position = number.length;
+        // Digits are taken from the negative side so that Long.MIN_VALUE needs no special case
+        long remaining = unscaled < 0 ? unscaled : -unscaled;
+        int digits = 0;
+
+        do {
+            number[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+            if (++digits == scale) {
+                number[--position] = '.';
+            }
+        } while (remaining != 0 || digits <= scale);
+
+        if (unscaled < 0) {
+            number[--position] = '-';
+        }
+        return position;
+    }
+}
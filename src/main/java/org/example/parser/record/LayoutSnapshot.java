@@ -0,0 +1,242 @@
+package org.example.parser.record;
+
+import org.example.parser.codec.ZonedDecimalCodec;
+import org.example.parser.util.FileUtils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of compiled layouts, written once after parsing and memory-mapped by decoding jobs so they
+ * start without tokenizing the copybook or going through Jackson. All values are big-endian:
+ *
+ * <pre>
+ * int    magic ("CBLY")
+ * short  format version
+ * short  reserved (0)
+ * int    name count N, int name bytes B
+ * int[N+1] start of each name in the name bytes, then byte[B] UTF-8 names
+ * int    layout count, then per layout:
+ *        int name index (-1 for none), int record length, int field count F,
+ *        int[F] name indexes, int[F] offsets, int[F] lengths, int[F] digits, int[F] scales,
+ *        byte[F] field types, byte[F] zoned signs, byte[F] signed flags
+ * </pre>
+ *
+ * Every name is stored once in the name table, however many layouts use it, and each distinct name is decoded
+ * into a single String when the snapshot is read.
+ */
+public final class LayoutSnapshot {
+    static final int MAGIC = 0x43424C59;
+    static final short VERSION = 1;
+
+    private static final FieldType[] FIELD_TYPES = FieldType.values();
+    private static final ZonedDecimalCodec.Sign[] SIGNS = ZonedDecimalCodec.Sign.values();
+
+    private LayoutSnapshot() {
+    }
+
+    public static void write(List<CompiledLayout> layouts, Path file) throws IOException {
+        try (OutputStream out = FileUtils.newBufferedOutputStream(file)) {
+            write(layouts, out);
+        }
+    }
+
+    /**
+     * Writes the snapshot to {@code out}. The stream is flushed but not closed.
+     */
+    public static void write(List<CompiledLayout> layouts, OutputStream out) throws IOException {
+        Map<String, Integer> nameIndexes = new LinkedHashMap<>();
+        for (CompiledLayout layout : layouts) {
+            if (layout.getName() != null) {
+                nameIndexes.putIfAbsent(layout.getName(), nameIndexes.size());
+            }
+            for (int i = 0; i < layout.getFieldCount(); i++) {
+                nameIndexes.putIfAbsent(layout.getFieldName(i), nameIndexes.size());
+            }
+        }
+
+        List<byte[]> encodedNames = new ArrayList<>(nameIndexes.size());
+        int nameBytes = 0;
+        for (String name : nameIndexes.keySet()) {
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            encodedNames.add(encoded);
+            nameBytes += encoded.length;
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort(0);
+
+        data.writeInt(encodedNames.size());
+        data.writeInt(nameBytes);
+        int start = 0;
+        for (byte[] encoded : encodedNames) {
+            data.writeInt(start);
+            start += encoded.length;
+        }
+        data.writeInt(start);
+        for (byte[] encoded : encodedNames) {
+            data.write(encoded);
+        }
+
+        data.writeInt(layouts.size());
+        for (CompiledLayout layout : layouts) {
+            int count = layout.getFieldCount();
+            data.writeInt(layout.getName() != null ? nameIndexes.get(layout.getName()) : -1);
+            data.writeInt(layout.getRecordLength());
+            data.writeInt(count);
+
+            for (int i = 0; i < count; i++) data.writeInt(nameIndexes.get(layout.getFieldName(i)));
+            for (int i = 0; i < count; i++) data.writeInt(layout.getOffset(i));
+            for (int i = 0; i < count; i++) data.writeInt(layout.getLength(i));
+            for (int i = 0; i < count; i++) data.writeInt(layout.getDigits(i));
+            for (int i = 0; i < count; i++) data.writeInt(layout.getScale(i));
+            for (int i = 0; i < count; i++) data.writeByte(layout.getType(i).ordinal());
+            for (int i = 0; i < count; i++) data.writeByte(layout.getSign(i).ordinal());
+            for (int i = 0; i < count; i++) data.writeByte(layout.isSigned(i) ? 1 : 0);
+        }
+        data.flush();
+    }
+
+    /**
+     * Memory-maps a snapshot file and rebuilds its layouts. The mapping is only used while reading.
+     */
+    public static List<CompiledLayout> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        } catch (IOException e) {
+            throw new IOException("Cannot read layout snapshot " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a snapshot from the buffer's position, leaving the position after the snapshot.
+     */
+    public static List<CompiledLayout> read(ByteBuffer source) throws IOException {
+        ByteBuffer buffer = source.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a layout snapshot");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported layout snapshot version " + version);
+            }
+            buffer.getShort();
+
+            String[] names = readNames(buffer);
+
+            int layoutCount = checkCount(buffer.getInt(), buffer, 12);
+            List<CompiledLayout> layouts = new ArrayList<>(layoutCount);
+            for (int l = 0; l < layoutCount; l++) {
+                layouts.add(readLayout(buffer, names));
+            }
+            source.position(buffer.position());
+            return layouts;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt layout snapshot", e);
+        }
+    }
+
+    private static String[] readNames(ByteBuffer buffer) throws IOException {
+        int count = checkCount(buffer.getInt(), buffer, 4);
+        int nameBytes = checkCount(buffer.getInt(), buffer, 1);
+
+        int[] starts = new int[count + 1];
+        buffer.asIntBuffer().get(starts);
+        buffer.position(buffer.position() + starts.length * Integer.BYTES);
+
+        byte[] blob = new byte[nameBytes];
+        buffer.get(blob);
+
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            if (starts[i] < 0 || starts[i] > starts[i + 1] || starts[i + 1] > nameBytes) {
+                throw new IOException("Corrupt layout snapshot name table");
+            }
+            names[i] = new String(blob, starts[i], starts[i + 1] - starts[i], StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+
+    private static CompiledLayout readLayout(ByteBuffer buffer, String[] names) throws IOException {
+        int nameIndex = buffer.getInt();
+        int recordLength = buffer.getInt();
+        if (recordLength < 0) {
+            throw new IOException("Corrupt layout snapshot: negative record length " + recordLength);
+        }
+        int count = checkCount(buffer.getInt(), buffer, 23);
+
+        int[] fieldNames = readInts(buffer, count);
+        int[] offsets = readInts(buffer, count);
+        int[] lengths = readInts(buffer, count);
+        int[] digits = readInts(buffer, count);
+        int[] scales = readInts(buffer, count);
+
+        String[] resolvedNames = new String[count];
+        FieldType[] types = new FieldType[count];
+        ZonedDecimalCodec.Sign[] signs = new ZonedDecimalCodec.Sign[count];
+        boolean[] signed = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            types[i] = FIELD_TYPES[ordinal(buffer.get(), FIELD_TYPES.length)];
+        }
+        for (int i = 0; i < count; i++) {
+            signs[i] = SIGNS[ordinal(buffer.get(), SIGNS.length)];
+        }
+        for (int i = 0; i < count; i++) {
+            signed[i] = buffer.get() != 0;
+        }
+
+        for (int i = 0; i < count; i++) {
+            resolvedNames[i] = names[fieldNames[i]];
+            // Compared without adding, so a hostile offset and length cannot overflow past the check
+            if (offsets[i] < 0 || lengths[i] <= 0 || offsets[i] > recordLength - lengths[i]) {
+                throw new IOException("Corrupt layout snapshot: field " + resolvedNames[i] + " does not fit the record");
+            }
+        }
+
+        String name = nameIndex >= 0 ? names[nameIndex] : null;
+        return new CompiledLayout(name, recordLength, resolvedNames, offsets, lengths, types, digits, scales,
+                signed, signs);
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static int ordinal(byte value, int limit) throws IOException {
+        if (value < 0 || value >= limit) {
+            throw new IOException("Corrupt layout snapshot: unknown code " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Rejects counts that are negative or could not fit in the rest of the buffer at {@code minBytes} each,
+     * so a corrupt header fails fast instead of allocating huge arrays.
+     */
+    private static int checkCount(int count, ByteBuffer buffer, int minBytes) throws IOException {
+        if (count < 0 || (long) count * minBytes > buffer.remaining()) {
+            throw new IOException("Corrupt layout snapshot: bad count " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.parser.record;
+
+import org.example.parser.CopybookParser;
+import org.example.parser.codec.CodePage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential reader for fixed-length data files. The file is mapped through a sliding window of whole records,
+ * so memory use stays constant regardless of file size, and each record is exposed as a {@link RecordDecoder}
+ * positioned over the mapped bytes rather than as a copied array.
+ *
+ * <pre>{@code
+ * try (MappedRecordReader reader = MappedRecordReader.open(copybook, dataFile)) {
+ *     int amount = reader.getLayout().indexOf("AMOUNT");
+ *     while (reader.next()) {
+ *         total += reader.record().getLong(amount);
+ *     }
+ * }
+ * }</pre>
+ *
+ * The decoder returned by {@link #record()} is only valid until the next call to {@link #next()}.
+ */
+public final class MappedRecordReader implements Closeable {
+    public static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private final CompiledLayout layout;
+    private final RecordDecoder decoder;
+    private final int recordLength;
+    private final long firstRecord;
+    private final long endRecord;
+    private final long recordsPerWindow;
+
+    private MappedByteBuffer window;
+    private long windowFirstRecord;
+    private long windowEndRecord;
+    private long currentRecord;
+
+    public MappedRecordReader(CompiledLayout layout, Path dataFile) throws IOException {
+        this(layout, dataFile, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedRecordReader(CompiledLayout layout, Path dataFile, CodePage codePage) throws IOException {
+        this(layout, codePage, openChannel(dataFile), true, 0, -1, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedRecordReader(CompiledLayout layout, Path dataFile, long windowSize) throws IOException {
+        this(layout, CodePage.ASCII, openChannel(dataFile), true, 0, -1, windowSize);
+    }
+
+    /**
+     * Reads records {@code [firstRecord, endRecord)} of an already open channel, closing it on close only when
+     * {@code ownsChannel} is set. An {@code endRecord} of -1 means the end of the file.
+     */
+    MappedRecordReader(CompiledLayout layout, CodePage codePage, FileChannel channel, boolean ownsChannel,
+                       long firstRecord, long endRecord, long windowSize) throws IOException {
+        this.layout = layout;
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.recordLength = layout.getRecordLength();
+        this.firstRecord = firstRecord;
+        try {
+            this.endRecord = endRecord >= 0 ? endRecord : countRecords(layout, channel);
+            this.recordsPerWindow = Math.max(1, Math.min(windowSize, Integer.MAX_VALUE) / recordLength);
+            this.decoder = new RecordDecoder(layout, codePage);
+        } catch (IOException | RuntimeException e) {
+            if (ownsChannel) {
+                closeAfterFailure(channel, e);
+            }
+            throw e;
+        }
+        this.currentRecord = firstRecord - 1;
+        this.windowEndRecord = firstRecord;
+    }
+
+    static FileChannel openChannel(Path dataFile) throws IOException {
+        return FileChannel.open(dataFile, StandardOpenOption.READ);
+    }
+
+    /**
+     * Closes a channel that could not be used, keeping any close failure as a suppressed exception.
+     */
+    static void closeAfterFailure(FileChannel channel, Exception failure) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Returns the number of whole records in the channel, rejecting files with a trailing partial record.
+     * The channel is left open either way; closing it is up to its owner.
+     */
+    static long countRecords(CompiledLayout layout, FileChannel channel) throws IOException {
+        int recordLength = layout.getRecordLength();
+        if (recordLength <= 0) {
+            throw new IllegalArgumentException("Layout " + layout.getName() + " has no record length");
+        }
+
+        long size = channel.size();
+        if (size % recordLength != 0) {
+            throw new IOException("Data file size " + size + " is not a multiple of record length " + recordLength);
+        }
+        return size / recordLength;
+    }
+
+    /**
+     * Parses the copybook and opens the data file with its first record layout.
+     */
+    public static MappedRecordReader open(Path copybook, Path dataFile) throws IOException {
+        CopybookParser.ParseResult result = new CopybookParser().parseCopybook(copybook);
+        return new MappedRecordReader(CompiledLayout.compile(result).get(0), dataFile);
+    }
+
+    public CompiledLayout getLayout() { return layout; }
+    public long getRecordCount() { return endRecord - firstRecord; }
+
+    /**
+     * Returns the zero-based number of the current record within the file.
+     */
+    public long getRecordNumber() { return currentRecord; }
+
+    public boolean next() throws IOException {
+        long record = currentRecord + 1;
+        if (record >= endRecord) {
+            return false;
+        }
+
+        if (record >= windowEndRecord) {
+            mapWindow(record);
+        }
+
+        currentRecord = record;
+        decoder.wrap(window, recordOffset());
+        return true;
+    }
+
+    public RecordDecoder record() {
+        return decoder;
+    }
+
+    /**
+     * Positions another decoder, typically one compiled for a different REDEFINES layout, over the current record.
+     */
+    public RecordDecoder record(RecordDecoder other) {
+        return other.wrap(window, recordOffset());
+    }
+
+    /**
+     * Returns the dispatcher's layout index for the current record, or its fallback.
+     */
+    public int select(RecordTypeDispatcher dispatcher) {
+        return dispatcher.select(window, recordOffset());
+    }
+
+    private int recordOffset() {
+        return (int) (currentRecord - windowFirstRecord) * recordLength;
+    }
+
+    private void mapWindow(long firstRecord) throws IOException {
+        long records = Math.min(recordsPerWindow, endRecord - firstRecord);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, firstRecord * recordLength, records * recordLength);
+        windowFirstRecord = firstRecord;
+        windowEndRecord = firstRecord + records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        if (ownsChannel) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package org.example.parser.record;
+
+import org.example.parser.CopybookParser;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Maps decoded records onto a Java record class or a JavaBean, matching layout fields by name: COBOL names are
+ * turned into Java property names by lower-casing them and capitalizing each word after a hyphen, so
+ * {@code CUSTOMER-ID} binds to a component or setter named {@code customerId}. Components of an array type bind
+ * to the occurrences of a one-dimensional OCCURS table, {@code PHONE-NUMBER(1)} to {@code PHONE-NUMBER(n)}.
+ *
+ * <pre>{@code
+ * public record Customer(long customerId, String customerName, BigDecimal balance) {}
+ *
+ * RecordBinder<Customer> binder = RecordBinder.of(layout, Customer.class);
+ * while (reader.next()) {
+ *     customers.add(binder.bind(reader.record()));
+ * }
+ * }</pre>
+ *
+ * All matching happens once, when the binder is created: every component gets a MethodHandle that reads its
+ * field from a {@link RecordDecoder} at a fixed index, and for a record class the handles are composed with the
+ * canonical constructor into one handle per binder. Binding a record therefore uses no reflection, name lookups
+ * or intermediate maps. Supported component types are String for text fields; long, int, their boxes,
+ * BigDecimal and double for numeric fields (long and int only without decimals); Object for the type
+ * {@link RecordDecoder#getValue(int)} returns; and arrays of these.
+ *
+ * <p>Every component of a record class must match a field. A JavaBean needs a public no-argument constructor and
+ * gets a value for each setter that matches a field; other setters are left alone, including those whose parameter
+ * type does not fit the field, such as an overload taking a String next to one taking a long. Layout fields without a
+ * matching component are ignored either way. Binders are immutable and can be shared between threads.
+ */
+public final class RecordBinder<T> implements Function<RecordDecoder, T> {
+    private static final MethodHandle GET_STRING;
+    private static final MethodHandle GET_LONG;
+    private static final MethodHandle GET_DECIMAL;
+    private static final MethodHandle GET_DOUBLE;
+    private static final MethodHandle GET_VALUE;
+    private static final MethodHandle TO_INT_EXACT;
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class, RecordDecoder.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, RecordDecoder.class);
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            GET_STRING = lookup.findVirtual(RecordDecoder.class, "getString",
+                    MethodType.methodType(String.class, int.class));
+            GET_LONG = lookup.findVirtual(RecordDecoder.class, "getLong",
+                    MethodType.methodType(long.class, int.class));
+            GET_DECIMAL = lookup.findVirtual(RecordDecoder.class, "getDecimal",
+                    MethodType.methodType(BigDecimal.class, int.class));
+            GET_DOUBLE = lookup.findVirtual(RecordDecoder.class, "getDouble",
+                    MethodType.methodType(double.class, int.class));
+            GET_VALUE = lookup.findVirtual(RecordDecoder.class, "getValue",
+                    MethodType.methodType(Object.class, int.class));
+            TO_INT_EXACT = lookup.findStatic(Math.class, "toIntExact",
+                    MethodType.methodType(int.class, long.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final CompiledLayout layout;
+    private final Class<T> type;
+    private final Map<String, Integer> fields = new HashMap<>();
+    private final Map<String, List<Integer>> tables = new HashMap<>();
+    private final MethodHandle factory;
+    private final MethodHandle[] setters;
+
+    private RecordBinder(CompiledLayout layout, Class<T> type, MethodHandles.Lookup lookup) {
+        this.layout = layout;
+        this.type = type;
+        for (int field = 0; field < layout.getFieldCount(); field++) {
+            String name = layout.getFieldName(field);
+            int subscript = name.indexOf('(');
+            if (subscript < 0) {
+                fields.putIfAbsent(propertyName(name), field);
+            } else if (name.indexOf(',', subscript) < 0) {
+                tables.computeIfAbsent(propertyName(name.substring(0, subscript)), key -> new ArrayList<>()).add(field);
+            }
+        }
+
+        try {
+            if (type.isRecord()) {
+                this.factory = recordFactory(lookup);
+                this.setters = new MethodHandle[0];
+            } else {
+                this.factory = MethodHandles.dropArguments(
+                        lookup.findConstructor(type, MethodType.methodType(void.class)), 0, RecordDecoder.class)
+                        .asType(FACTORY_TYPE);
+                this.setters = beanSetters(lookup);
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot bind " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates a binder for a public type, accessible to {@link MethodHandles#publicLookup()}.
+     */
+    public static <T> RecordBinder<T> of(CompiledLayout layout, Class<T> type) {
+        return of(layout, type, MethodHandles.publicLookup());
+    }
+
+    /**
+     * Creates a binder for a type that {@code lookup} can access, typically {@code MethodHandles.lookup()} of
+     * the caller for package-private or nested types.
+     */
+    public static <T> RecordBinder<T> of(CompiledLayout layout, Class<T> type, MethodHandles.Lookup lookup) {
+        return new RecordBinder<>(layout, type, lookup);
+    }
+
+    public static <T> RecordBinder<T> of(CopybookParser.RecordLayout layout, Class<T> type) {
+        return of(CompiledLayout.compile(layout), type);
+    }
+
+    /**
+     * Returns the Java property name for a COBOL data name: {@code CUSTOMER-ID} becomes {@code customerId}.
+     */
+    public static String propertyName(String cobolName) {
+        StringBuilder name = new StringBuilder(cobolName.length());
+        boolean upper = false;
+        for (int i = 0; i < cobolName.length(); i++) {
+            char c = cobolName.charAt(i);
+            if (c == '-' || c == '_') {
+                upper = name.length() > 0;
+            } else {
+                name.append(upper ? Character.toUpperCase(c) : Character.toLowerCase(c));
+                upper = false;
+            }
+        }
+        return name.toString();
+    }
+
+    public CompiledLayout getLayout() { return layout; }
+    public Class<T> getType() { return type; }
+
+    /**
+     * Creates an instance of the target type from the record the decoder is positioned on.
+     */
+    public T bind(RecordDecoder decoder) {
+        try {
+            Object target = factory.invokeExact(decoder);
+            for (MethodHandle setter : setters) {
+                setter.invokeExact(target, decoder);
+            }
+            return type.cast(target);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot bind a record to " + type.getName(), e);
+        }
+    }
+
+    @Override
+    public T apply(RecordDecoder decoder) {
+        return bind(decoder);
+    }
+
+    /**
+     * Composes the canonical constructor with one reader per component into a single
+     * {@code (RecordDecoder) -> Object} handle.
+     */
+    private MethodHandle recordFactory(MethodHandles.Lookup lookup) throws NoSuchMethodException,
+            IllegalAccessException {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        MethodHandle[] readers = new MethodHandle[components.length];
+        for (int i = 0; i < components.length; i++) {
+            parameterTypes[i] = components[i].getType();
+            readers[i] = reader(components[i].getName(), parameterTypes[i]);
+            if (readers[i] == null) {
+                throw new IllegalArgumentException("No field of layout " + layout.getName() +
+                        " matches component " + components[i].getName() + " of " + type.getName());
+            }
+        }
+
+        MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class, parameterTypes));
+        MethodHandle factory = MethodHandles.filterArguments(constructor, 0, readers);
+        return MethodHandles.permuteArguments(factory, MethodType.methodType(type, RecordDecoder.class),
+                new int[components.length]).asType(FACTORY_TYPE);
+    }
+
+    /**
+     * Returns a {@code (Object, RecordDecoder) -> void} handle for each public setter that matches a field and
+     * whose parameter type fits it.
+     */
+    private MethodHandle[] beanSetters(MethodHandles.Lookup lookup) throws IllegalAccessException {
+        List<MethodHandle> setters = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            String name = method.getName();
+            if (!name.startsWith("set") || name.length() == 3 || method.getParameterCount() != 1 ||
+                    Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+
+            String property = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+            Class<?> parameterType = method.getParameterTypes()[0];
+            if (accepts(property, parameterType)) {
+                MethodHandle setter = MethodHandles.filterArguments(lookup.unreflect(method), 1,
+                        reader(property, parameterType));
+                setters.add(setter.asType(SETTER_TYPE));
+            }
+        }
+        return setters.toArray(new MethodHandle[0]);
+    }
+
+    /**
+     * Returns a {@code (RecordDecoder) -> componentType} handle for the field named {@code property}, or null
+     * when the layout has no such field.
+     */
+    private MethodHandle reader(String property, Class<?> componentType) {
+        if (!componentType.isArray()) {
+            Integer field = fields.get(property);
+            return field != null ? fieldReader(field, componentType) : null;
+        }
+
+        List<Integer> occurrences = tables.get(property);
+        if (occurrences == null) {
+            return null;
+        }
+        Class<?> elementType = componentType.getComponentType();
+        MethodHandle[] readers = new MethodHandle[occurrences.size()];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = fieldReader(occurrences.get(i), elementType);
+        }
+        MethodHandle array = MethodHandles.identity(componentType).asCollector(componentType, readers.length);
+        return MethodHandles.permuteArguments(MethodHandles.filterArguments(array, 0, readers),
+                MethodType.methodType(componentType, RecordDecoder.class), new int[readers.length]);
+    }
+
+    /**
+     * Returns whether the layout has a field named {@code property} that can be read as {@code componentType}.
+     */
+    private boolean accepts(String property, Class<?> componentType) {
+        if (!componentType.isArray()) {
+            Integer field = fields.get(property);
+            return field != null && accepts(field, componentType);
+        }
+
+        List<Integer> occurrences = tables.get(property);
+        if (occurrences == null) {
+            return false;
+        }
+        for (int field : occurrences) {
+            if (!accepts(field, componentType.getComponentType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean accepts(int field, Class<?> valueType) {
+        FieldType fieldType = layout.getType(field);
+        if (valueType == String.class) {
+            return fieldType == FieldType.ALPHANUMERIC;
+        } else if (valueType == long.class || valueType == Long.class || valueType == int.class ||
+                valueType == Integer.class) {
+            return fieldType.isNumeric() && layout.getScale(field) == 0;
+        } else if (valueType == BigDecimal.class || valueType == double.class || valueType == Double.class) {
+            return fieldType.isNumeric();
+        }
+        return valueType == Object.class;
+    }
+
+    private MethodHandle fieldReader(int field, Class<?> valueType) {
+        if (!accepts(field, valueType)) {
+            int scale = layout.getScale(field);
+            throw new IllegalArgumentException("Field " + layout.getFieldName(field) + " (" +
+                    layout.getType(field).name().toLowerCase(Locale.ROOT) +
+                    (scale > 0 ? ", " + scale + " decimals" : "") + ") cannot be bound to " +
+                    valueType.getSimpleName());
+        }
+
+        MethodHandle getter;
+        if (valueType == String.class) {
+            getter = GET_STRING;
+        } else if (valueType == long.class || valueType == Long.class) {
+            getter = GET_LONG;
+        } else if (valueType == int.class || valueType == Integer.class) {
+            getter = MethodHandles.filterReturnValue(GET_LONG, TO_INT_EXACT);
+        } else if (valueType == BigDecimal.class) {
+            getter = GET_DECIMAL;
+        } else if (valueType == double.class || valueType == Double.class) {
+            getter = GET_DOUBLE;
+        } else {
+            getter = GET_VALUE;
+        }
+        return MethodHandles.insertArguments(getter, 1, field)
+                .asType(MethodType.methodType(valueType, RecordDecoder.class));
+    }
+}
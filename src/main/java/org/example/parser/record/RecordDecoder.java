@@ -0,0 +1,147 @@
+package org.example.parser.record;
+
+import org.example.parser.codec.BinaryCodec;
+import org.example.parser.codec.CodePage;
+import org.example.parser.codec.PackedDecimalCodec;
+import org.example.parser.codec.ZonedDecimalCodec;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Reusable flyweight that decodes fields of a {@link CompiledLayout} from a record held in a byte array or
+ * ByteBuffer. Wrapping a record only moves a cursor; nothing is copied until a field is read, and numeric
+ * accessors return primitives. Text fields are translated through the decoder's {@link CodePage} only when
+ * they are read. Instances are not thread-safe - use one decoder per thread.
+ */
+public final class RecordDecoder {
+    private final CompiledLayout layout;
+    private final CodePage codePage;
+    private final byte[] scratch;
+    private ByteBuffer buffer;
+    private byte[] wrappedArray;
+    private int base;
+
+    public RecordDecoder(CompiledLayout layout) {
+        this(layout, CodePage.ASCII);
+    }
+
+    public RecordDecoder(CompiledLayout layout, CodePage codePage) {
+        this.layout = layout;
+        this.codePage = codePage;
+        this.scratch = new byte[Math.max(1, layout.maxFieldLength())];
+    }
+
+    public CompiledLayout getLayout() { return layout; }
+    public CodePage getCodePage() { return codePage; }
+
+    public RecordDecoder wrap(byte[] record) {
+        return wrap(record, 0);
+    }
+
+    public RecordDecoder wrap(byte[] data, int offset) {
+        if (data != wrappedArray) {
+            this.buffer = ByteBuffer.wrap(data);
+            this.wrappedArray = data;
+        }
+        return position(offset);
+    }
+
+    public RecordDecoder wrap(ByteBuffer data, int offset) {
+        this.buffer = data;
+        this.wrappedArray = null;
+        return position(offset);
+    }
+
+    private RecordDecoder position(int offset) {
+        Objects.checkFromIndexSize(offset, layout.getRecordLength(), buffer.limit());
+        this.base = offset;
+        return this;
+    }
+
+    public String getString(int field) {
+        return codePage.decode(buffer, base + layout.getOffset(field), layout.getLength(field), scratch);
+    }
+
+    /**
+     * Decodes a text field into {@code target}, which must hold at least the field length, without creating a
+     * String. Returns the number of chars written.
+     */
+    public int getChars(int field, char[] target) {
+        return codePage.decode(buffer, base + layout.getOffset(field), layout.getLength(field), target);
+    }
+
+    /**
+     * Returns the unscaled value of a numeric field; apply {@link CompiledLayout#getScale(int)} to interpret it.
+     *
+     * @throws ArithmeticException if the value does not fit in a long (see {@link CompiledLayout#fitsLong(int)})
+     */
+    public long getLong(int field) {
+        int position = base + layout.getOffset(field);
+        return switch (layout.getType(field)) {
+            case ZONED_DECIMAL -> ZonedDecimalCodec.decodeLong(buffer, position, layout.getLength(field),
+                    layout.getSign(field), codePage.isEbcdic());
+            case PACKED_DECIMAL -> PackedDecimalCodec.decodeLong(buffer, position, layout.getLength(field));
+            case BINARY -> BinaryCodec.decode(buffer, position, layout.getLength(field),
+                    layout.isSigned(field), layout.getDigits(field));
+            case NATIVE_BINARY -> BinaryCodec.decode(buffer, position, layout.getLength(field), layout.isSigned(field));
+            case FLOAT, DOUBLE -> (long) getDouble(field);
+            case ALPHANUMERIC -> throw notNumeric(field);
+        };
+    }
+
+    public BigDecimal getDecimal(int field) {
+        int scale = layout.getScale(field);
+        return switch (layout.getType(field)) {
+            case PACKED_DECIMAL -> PackedDecimalCodec.decode(buffer, base + layout.getOffset(field),
+                    layout.getLength(field), scale);
+            case ZONED_DECIMAL -> ZonedDecimalCodec.decode(buffer, base + layout.getOffset(field),
+                    layout.getLength(field), scale, layout.getSign(field), codePage.isEbcdic());
+            case BINARY -> BinaryCodec.decode(buffer, base + layout.getOffset(field), layout.getLength(field),
+                    layout.isSigned(field), layout.getDigits(field), scale);
+            case NATIVE_BINARY -> BinaryCodec.decode(buffer, base + layout.getOffset(field), layout.getLength(field),
+                    layout.isSigned(field), 0, scale);
+            case FLOAT, DOUBLE -> BigDecimal.valueOf(getDouble(field));
+            case ALPHANUMERIC -> throw notNumeric(field);
+        };
+    }
+
+    public double getDouble(int field) {
+        int position = base + layout.getOffset(field);
+        return switch (layout.getType(field)) {
+            case FLOAT -> BinaryCodec.decodeHexFloat(buffer, position);
+            case DOUBLE -> BinaryCodec.decodeHexDouble(buffer, position);
+            default -> getDecimal(field).doubleValue();
+        };
+    }
+
+    /**
+     * Decodes a field into its natural Java type: String for alphanumeric fields, Long for integers,
+     * BigDecimal for scaled numbers and integers that may not fit a long, and Double for floating point.
+     */
+    public Object getValue(int field) {
+        return switch (layout.getType(field)) {
+            case ALPHANUMERIC -> getString(field);
+            case FLOAT, DOUBLE -> getDouble(field);
+            default -> layout.getScale(field) > 0 || !layout.fitsLong(field)
+                    ? getDecimal(field) : (Object) getLong(field);
+        };
+    }
+
+    /**
+     * Decodes every field of the current record into {@code values}, which must hold at least
+     * {@link CompiledLayout#getFieldCount()} elements and can be reused across records.
+     */
+    public Object[] decode(Object[] values) {
+        int count = layout.getFieldCount();
+        for (int i = 0; i < count; i++) {
+            values[i] = getValue(i);
+        }
+        return values;
+    }
+
+    private IllegalStateException notNumeric(int field) {
+        return new IllegalStateException("Field " + layout.getFieldName(field) + " is not numeric");
+    }
+}
@@ -0,0 +1,242 @@
+package org.example.parser.record;
+
+import org.example.parser.codec.BinaryCodec;
+import org.example.parser.codec.CodePage;
+import org.example.parser.codec.PackedDecimalCodec;
+import org.example.parser.codec.ZonedDecimalCodec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Reusable flyweight that writes fields of a {@link CompiledLayout} into a record held in a byte array or
+ * ByteBuffer; the counterpart of {@link RecordDecoder}. {@link #clear()} resets the record from a template
+ * encoded once per encoder (spaces for text and gaps, zero for numbers), so only the fields that are set cost
+ * any encoding work. Numbers are checked against their PIC digits and never silently truncated; text longer
+ * than its field is cut off on the right, as by a COBOL MOVE. Instances are not thread-safe.
+ */
+public final class RecordEncoder {
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final CompiledLayout layout;
+    private final CodePage codePage;
+    private final byte[] template;
+    private ByteBuffer buffer;
+    private byte[] wrappedArray;
+    private int base;
+
+    public RecordEncoder(CompiledLayout layout) {
+        this(layout, CodePage.ASCII);
+    }
+
+    public RecordEncoder(CompiledLayout layout, CodePage codePage) {
+        this.layout = layout;
+        this.codePage = codePage;
+        this.template = new byte[layout.getRecordLength()];
+
+        this.buffer = ByteBuffer.wrap(template);
+        this.wrappedArray = template;
+        for (int i = 0; i < template.length; i++) {
+            template[i] = codePage.getSpace();
+        }
+        for (int field = 0; field < layout.getFieldCount(); field++) {
+            if (layout.getType(field).isNumeric()) {
+                setLong(field, 0);
+            }
+        }
+        this.buffer = null;
+        this.wrappedArray = null;
+    }
+
+    public CompiledLayout getLayout() { return layout; }
+    public CodePage getCodePage() { return codePage; }
+
+    public RecordEncoder wrap(byte[] record) {
+        return wrap(record, 0);
+    }
+
+    public RecordEncoder wrap(byte[] data, int offset) {
+        if (data != wrappedArray) {
+            this.buffer = ByteBuffer.wrap(data);
+            this.wrappedArray = data;
+        }
+        return position(offset);
+    }
+
+    public RecordEncoder wrap(ByteBuffer data, int offset) {
+        this.buffer = data;
+        this.wrappedArray = null;
+        return position(offset);
+    }
+
+    private RecordEncoder position(int offset) {
+        Objects.checkFromIndexSize(offset, layout.getRecordLength(), buffer.limit());
+        this.base = offset;
+        return this;
+    }
+
+    /**
+     * Resets the whole record: text fields and bytes not covered by any field to spaces, numeric fields to zero.
+     */
+    public RecordEncoder clear() {
+        buffer.put(base, template);
+        return this;
+    }
+
+    public RecordEncoder setString(int field, CharSequence value) {
+        if (layout.getType(field) != FieldType.ALPHANUMERIC) {
+            throw new IllegalStateException("Field " + layout.getFieldName(field) + " is not alphanumeric");
+        }
+        codePage.encode(value, buffer, base + layout.getOffset(field), layout.getLength(field));
+        return this;
+    }
+
+    /**
+     * Writes the unscaled value of a numeric field, the counterpart of {@link RecordDecoder#getLong(int)}: 12345
+     * in a {@code 9(3)V99} field is 123.45.
+     *
+     * @throws ArithmeticException if the value has more digits than the PIC allows or a negative value is
+     *                             written to an unsigned field
+     */
+    public RecordEncoder setLong(int field, long unscaled) {
+        int position = base + layout.getOffset(field);
+        int length = layout.getLength(field);
+        switch (layout.getType(field)) {
+            case ZONED_DECIMAL -> {
+                checkDigits(field, unscaled);
+                ZonedDecimalCodec.encodeLong(buffer, position, length, unscaled, layout.getSign(field),
+                        codePage.isEbcdic());
+            }
+            case PACKED_DECIMAL -> {
+                checkDigits(field, unscaled);
+                PackedDecimalCodec.encodeLong(buffer, position, length, unscaled, layout.isSigned(field));
+            }
+            case BINARY -> BinaryCodec.encode(buffer, position, length, unscaled, layout.isSigned(field),
+                    layout.getDigits(field));
+            case NATIVE_BINARY -> BinaryCodec.encode(buffer, position, length, unscaled, layout.isSigned(field), 0);
+            case FLOAT, DOUBLE -> setDouble(field, unscaled);
+            case ALPHANUMERIC -> throw notNumeric(field);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a decimal value at the field's scale. Values with more fraction digits than the field are rejected
+     * rather than rounded.
+     *
+     * @throws ArithmeticException if the value has more digits than the field holds
+     */
+    public RecordEncoder setDecimal(int field, BigDecimal value) {
+        int position = base + layout.getOffset(field);
+        int length = layout.getLength(field);
+        int scale = layout.getScale(field);
+        switch (layout.getType(field)) {
+            case PACKED_DECIMAL -> {
+                checkDigits(field, value);
+                PackedDecimalCodec.encode(buffer, position, length, value, scale, layout.isSigned(field));
+            }
+            case ZONED_DECIMAL -> {
+                checkDigits(field, value);
+                ZonedDecimalCodec.encode(buffer, position, length, value, scale, layout.getSign(field),
+                        codePage.isEbcdic());
+            }
+            case BINARY -> BinaryCodec.encode(buffer, position, length, value, layout.isSigned(field),
+                    layout.getDigits(field), scale);
+            case NATIVE_BINARY -> BinaryCodec.encode(buffer, position, length, value, layout.isSigned(field), 0,
+                    scale);
+            case FLOAT, DOUBLE -> setDouble(field, value.doubleValue());
+            case ALPHANUMERIC -> throw notNumeric(field);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a floating point field, or a decimal field rounded half-up to its scale.
+     */
+    public RecordEncoder setDouble(int field, double value) {
+        int position = base + layout.getOffset(field);
+        switch (layout.getType(field)) {
+            case FLOAT -> BinaryCodec.encodeHexFloat(buffer, position, value);
+            case DOUBLE -> BinaryCodec.encodeHexDouble(buffer, position, value);
+            case ALPHANUMERIC -> throw notNumeric(field);
+            default -> setDecimal(field, BigDecimal.valueOf(value).setScale(layout.getScale(field), RoundingMode.HALF_UP));
+        }
+        return this;
+    }
+
+    /**
+     * Writes a value of the type {@link RecordDecoder#getValue(int)} returns for the field. Integral numbers are
+     * taken as values, not unscaled: a Long of 5 in a {@code 9(3)V99} field is 5.00. Numbers other than the
+     * primitive wrappers, such as BigInteger, go through BigDecimal, so they are never truncated to a long. Null
+     * leaves the field as is.
+     */
+    public RecordEncoder setValue(int field, Object value) {
+        switch (value) {
+            case null -> {
+            }
+            case CharSequence text -> setString(field, text);
+            case BigDecimal decimal -> setDecimal(field, decimal);
+            case Double number -> setDouble(field, number);
+            case Float number -> setDouble(field, number);
+            case Number number when layout.getScale(field) == 0 && isIntegral(number) ->
+                    setLong(field, number.longValue());
+            case BigInteger integer -> setDecimal(field, new BigDecimal(integer));
+            case Number number -> setDecimal(field, new BigDecimal(number.toString()));
+            default -> throw new IllegalArgumentException("Cannot write " + value.getClass().getSimpleName() +
+                    " to field " + layout.getFieldName(field));
+        }
+        return this;
+    }
+
+    /**
+     * Writes every field from {@code values}, indexed like the layout's fields, as produced by
+     * {@link RecordDecoder#decode(Object[])}.
+     */
+    public RecordEncoder encode(Object[] values) {
+        int count = layout.getFieldCount();
+        for (int i = 0; i < count; i++) {
+            setValue(i, values[i]);
+        }
+        return this;
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short ||
+                number instanceof Byte;
+    }
+
+    private void checkDigits(int field, long unscaled) {
+        int digits = layout.getDigits(field);
+        if (digits > 0 && digits < POWERS_OF_TEN.length &&
+                (unscaled >= POWERS_OF_TEN[digits] || unscaled <= -POWERS_OF_TEN[digits])) {
+            throw tooManyDigits(field, unscaled);
+        }
+    }
+
+    private void checkDigits(int field, BigDecimal value) {
+        int digits = layout.getDigits(field);
+        int integerDigits = value.precision() - value.scale();
+        if (digits > 0 && value.signum() != 0 && integerDigits > digits - layout.getScale(field)) {
+            throw tooManyDigits(field, value);
+        }
+    }
+
+    private ArithmeticException tooManyDigits(int field, Object value) {
+        return new ArithmeticException("Value " + value + " has more than the " + layout.getDigits(field) +
+                " digits of field " + layout.getFieldName(field));
+    }
+
+    private IllegalStateException notNumeric(int field) {
+        return new IllegalStateException("Field " + layout.getFieldName(field) + " is not numeric");
+    }
+}
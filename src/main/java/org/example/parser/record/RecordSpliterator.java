@@ -0,0 +1,127 @@
+package org.example.parser.record;
+
+import org.example.parser.codec.CodePage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Spliterator over the records of a fixed-length data file. Because every record has the same length, the
+ * file splits into record-aligned ranges that are mapped and decoded independently, so a parallel stream
+ * decodes on all cores without any shared state besides the read-only file channel.
+ *
+ * <p>Each record is handed to the mapper as a {@link RecordDecoder} flyweight owned by the current split; the
+ * mapper must extract what it needs and not retain the decoder itself.
+ */
+public final class RecordSpliterator<T> implements Spliterator<T> {
+    static final long MIN_SPLIT_RECORDS = 4096;
+
+    private final CompiledLayout layout;
+    private final CodePage codePage;
+    private final FileChannel channel;
+    private final Function<RecordDecoder, ? extends T> mapper;
+    private final boolean ordered;
+    private long firstRecord;
+    private final long endRecord;
+    private MappedRecordReader reader;
+
+    RecordSpliterator(CompiledLayout layout, CodePage codePage, FileChannel channel,
+                      Function<RecordDecoder, ? extends T> mapper, boolean ordered, long firstRecord, long endRecord) {
+        this.layout = layout;
+        this.codePage = codePage;
+        this.channel = channel;
+        this.mapper = mapper;
+        this.ordered = ordered;
+        this.firstRecord = firstRecord;
+        this.endRecord = endRecord;
+    }
+
+    /**
+     * Opens a parallel stream of mapped records. With {@code ordered} set, results keep file order for
+     * collecting and {@code forEachOrdered}; otherwise the stream is unordered and splits finish independently.
+     * The data file is closed when the stream is closed.
+     */
+    public static <T> Stream<T> stream(CompiledLayout layout, Path dataFile,
+                                       Function<RecordDecoder, ? extends T> mapper, boolean ordered) throws IOException {
+        return stream(layout, CodePage.ASCII, dataFile, mapper, ordered);
+    }
+
+    public static <T> Stream<T> stream(CompiledLayout layout, CodePage codePage, Path dataFile,
+                                       Function<RecordDecoder, ? extends T> mapper, boolean ordered) throws IOException {
+        FileChannel channel = MappedRecordReader.openChannel(dataFile);
+        long recordCount;
+        try {
+            recordCount = MappedRecordReader.countRecords(layout, channel);
+        } catch (IOException | RuntimeException e) {
+            MappedRecordReader.closeAfterFailure(channel, e);
+            throw e;
+        }
+
+        Stream<T> stream = StreamSupport.stream(
+                new RecordSpliterator<T>(layout, codePage, channel, mapper, ordered, 0, recordCount), true);
+        stream = stream.onClose(() -> {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ordered ? stream : stream.unordered();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        try {
+            if (reader == null) {
+                reader = new MappedRecordReader(layout, codePage, channel, false, firstRecord, endRecord,
+                        MappedRecordReader.DEFAULT_WINDOW_SIZE);
+            }
+            if (!reader.next()) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        action.accept(mapper.apply(reader.record()));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        while (tryAdvance(action)) {
+            // Drain the remaining records of this split
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        long remaining = endRecord - firstRecord;
+        if (reader != null || remaining < MIN_SPLIT_RECORDS * 2) {
+            return null;
+        }
+
+        long middle = firstRecord + remaining / 2;
+        RecordSpliterator<T> prefix = new RecordSpliterator<>(layout, codePage, channel, mapper, ordered,
+                firstRecord, middle);
+        firstRecord = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return reader == null ? endRecord - firstRecord : endRecord - reader.getRecordNumber() - 1;
+    }
+
+    @Override
+    public int characteristics() {
+        return SIZED | SUBSIZED | IMMUTABLE | (ordered ? ORDERED : 0);
+    }
+}
@@ -0,0 +1,344 @@
+package org.example.parser.record;
+
+import org.example.parser.CobolField;
+import org.example.parser.CopybookParser;
+import org.example.parser.codec.CodePage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Selects the REDEFINES layout of each record of a multi-layout file from its record type bytes. The
+ * discriminator is the field whose 88-level values the parser collected as a layout's record type values; its
+ * expected bytes are encoded once in the file's code page and indexed with a perfect hash, so choosing a layout
+ * costs one multiply and one comparison per record however many record types there are.
+ *
+ * <pre>{@code
+ * RecordTypeDispatcher dispatcher = RecordTypeDispatcher.of(result, CodePage.CP037);
+ * while (reader.next()) {
+ *     RecordDecoder decoder = decoders[reader.select(dispatcher)];
+ *     ...
+ * }
+ * }</pre>
+ *
+ * Records whose type matches no layout select the fallback, which is -1 unless one was given. Instances are
+ * immutable and can be shared between threads.
+ */
+public final class RecordTypeDispatcher {
+    private static final int MAX_TABLE_BITS = 20;
+    private static final int ATTEMPTS_PER_SIZE = 64;
+    /** Slot layout marking a fingerprint shared by several values, resolved through {@link #sharedKeys}. */
+    private static final int SHARED_FINGERPRINT = -2;
+
+    private final List<CompiledLayout> layouts;
+    private final int fallback;
+    private final int offset;
+    private final int length;
+    private final long multiplier;
+    private final int shift;
+    private final long[] slotKeys;
+    private final int[] slotLayouts;
+    private final byte[][] slotBytes;
+    private final Map<Key, Integer> sharedKeys;
+
+    RecordTypeDispatcher(List<CompiledLayout> layouts, int fallback, int offset, int length,
+                         Map<Key, Integer> entries) {
+        this.layouts = List.copyOf(layouts);
+        this.fallback = fallback;
+        this.offset = offset;
+        this.length = length;
+
+        // Only distinct fingerprints need distinct slots: values longer than eight bytes whose hashes are equal
+        // share one slot and are told apart by their bytes
+        Map<Long, List<Key>> byFingerprint = new LinkedHashMap<>();
+        for (Key key : entries.keySet()) {
+            byFingerprint.computeIfAbsent(key.fingerprint(), fingerprint -> new ArrayList<>(1)).add(key);
+        }
+        long[] keys = new long[byFingerprint.size()];
+        int n = 0;
+        for (long fingerprint : byFingerprint.keySet()) {
+            keys[n++] = fingerprint;
+        }
+
+        // Search for a multiplier that spreads the keys over the table without collisions, growing the table
+        // when none is found; the keys are known up front, so this happens once per layout set
+        SplittableRandom random = new SplittableRandom(0x9E3779B97F4A7C15L);
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, keys.length * 2 - 1)));
+        long found = 0;
+        while (found == 0) {
+            if (bits > MAX_TABLE_BITS) {
+                throw new IllegalArgumentException("Cannot index " + keys.length + " record type values");
+            }
+            for (int attempt = 0; attempt < ATTEMPTS_PER_SIZE && found == 0; attempt++) {
+                long candidate = random.nextLong() | 1L;
+                if (isCollisionFree(keys, candidate, 64 - bits)) {
+                    found = candidate;
+                }
+            }
+            if (found == 0) {
+                bits++;
+            }
+        }
+
+        this.multiplier = found;
+        this.shift = 64 - bits;
+        this.slotKeys = new long[1 << bits];
+        this.slotLayouts = new int[1 << bits];
+        this.slotBytes = length > Long.BYTES ? new byte[1 << bits][] : null;
+        Arrays.fill(slotLayouts, -1);
+        Map<Key, Integer> shared = new HashMap<>();
+        for (Map.Entry<Long, List<Key>> entry : byFingerprint.entrySet()) {
+            int slot = slot(entry.getKey());
+            List<Key> sameFingerprint = entry.getValue();
+            slotKeys[slot] = entry.getKey();
+            if (sameFingerprint.size() == 1) {
+                slotLayouts[slot] = entries.get(sameFingerprint.get(0));
+                if (slotBytes != null) {
+                    slotBytes[slot] = sameFingerprint.get(0).bytes();
+                }
+            } else {
+                slotLayouts[slot] = SHARED_FINGERPRINT;
+                for (Key key : sameFingerprint) {
+                    shared.put(key, entries.get(key));
+                }
+            }
+        }
+        this.sharedKeys = Map.copyOf(shared);
+    }
+
+    /**
+     * Builds a dispatcher over the layouts compiled from {@code result}, in the order of
+     * {@link CopybookParser.ParseResult#getRecordLayouts()}, without a fallback.
+     */
+    public static RecordTypeDispatcher of(CopybookParser.ParseResult result, CodePage codePage) {
+        List<CompiledLayout> layouts = new ArrayList<>(result.getRecordLayouts().size());
+        for (CopybookParser.RecordLayout layout : result.getRecordLayouts()) {
+            layouts.add(CompiledLayout.compile(layout));
+        }
+        return of(result, layouts, codePage, -1);
+    }
+
+    /**
+     * Builds a dispatcher selecting among {@code layouts}, which must be compiled from the parse result's record
+     * layouts in the same order. Records of an unknown type select {@code fallback}, which may be -1.
+     *
+     * @throws IllegalArgumentException if the layouts have no record type values, disagree on where the record
+     *                                  type is stored, or two layouts claim the same value
+     */
+    public static RecordTypeDispatcher of(CopybookParser.ParseResult result, List<CompiledLayout> layouts,
+                                          CodePage codePage, int fallback) {
+        List<CopybookParser.RecordLayout> recordLayouts = result.getRecordLayouts();
+        if (layouts.size() != recordLayouts.size()) {
+            throw new IllegalArgumentException("Expected " + recordLayouts.size() + " compiled layouts, got " +
+                    layouts.size());
+        }
+        if (fallback < -1 || fallback >= layouts.size()) {
+            throw new IllegalArgumentException("Fallback layout " + fallback + " does not exist");
+        }
+
+        CobolField discriminator = null;
+        int offset = -1;
+        Map<Key, Integer> entries = new LinkedHashMap<>();
+        for (int i = 0; i < recordLayouts.size(); i++) {
+            CopybookParser.RecordLayout layout = recordLayouts.get(i);
+            CobolField field = findDiscriminator(layout.getFields(), layout.getRecordTypeValues());
+            if (field == null) {
+                continue;
+            }
+
+            int fieldOffset = field.getStartPosition() - layout.getStartPosition();
+            if (discriminator == null) {
+                discriminator = field;
+                offset = fieldOffset;
+            } else if (fieldOffset != offset || field.getLength() != discriminator.getLength()) {
+                throw new IllegalArgumentException("Layout " + layout.getName() + " stores its record type at " +
+                        "position " + (fieldOffset + 1) + " (length " + field.getLength() + "), other layouts at " +
+                        (offset + 1) + " (length " + discriminator.getLength() + ")");
+            }
+
+            for (String value : layout.getRecordTypeValues()) {
+                if (value == null) {
+                    continue;
+                }
+                Key key = Key.of(encode(value, field, codePage));
+                Integer previous = entries.putIfAbsent(key, i);
+                if (previous != null && previous != i) {
+                    throw new IllegalArgumentException("Record type value '" + value + "' is claimed by layouts " +
+                            recordLayouts.get(previous).getName() + " and " + layout.getName());
+                }
+            }
+        }
+
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("No record type values found in " + result.getFileName());
+        }
+        return new RecordTypeDispatcher(layouts, fallback, offset, discriminator.getLength(), entries);
+    }
+
+    public List<CompiledLayout> getLayouts() { return layouts; }
+    public int getFallback() { return fallback; }
+
+    /** Zero-based offset of the record type within the record. */
+    public int getDiscriminatorOffset() { return offset; }
+    public int getDiscriminatorLength() { return length; }
+
+    /**
+     * Returns the index of the layout for the record starting at {@code recordOffset}, or the fallback.
+     */
+    public int select(ByteBuffer buffer, int recordOffset) {
+        int start = recordOffset + offset;
+        long fingerprint = length <= Long.BYTES ? pack(buffer, start, length) : hash(buffer, start, length);
+
+        int slot = slot(fingerprint);
+        int layout = slotLayouts[slot];
+        if (layout == -1 || slotKeys[slot] != fingerprint) {
+            return fallback;
+        }
+        if (layout == SHARED_FINGERPRINT) {
+            byte[] bytes = new byte[length];
+            buffer.get(start, bytes);
+            return sharedKeys.getOrDefault(new Key(bytes, fingerprint), fallback);
+        }
+        if (slotBytes != null && !matches(buffer, start, slotBytes[slot])) {
+            return fallback;
+        }
+        return layout;
+    }
+
+    public int select(byte[] record, int recordOffset) {
+        return select(ByteBuffer.wrap(record), recordOffset);
+    }
+
+    /**
+     * Returns the layout for the record starting at {@code recordOffset}, or null when neither a layout nor a
+     * fallback matches.
+     */
+    public CompiledLayout selectLayout(ByteBuffer buffer, int recordOffset) {
+        int index = select(buffer, recordOffset);
+        return index >= 0 ? layouts.get(index) : null;
+    }
+
+    private int slot(long fingerprint) {
+        return (int) ((fingerprint * multiplier) >>> shift);
+    }
+
+    private static boolean matches(ByteBuffer buffer, int start, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCollisionFree(long[] keys, long multiplier, int shift) {
+        boolean[] used = new boolean[1 << (64 - shift)];
+        for (long key : keys) {
+            int slot = (int) ((key * multiplier) >>> shift);
+            if (used[slot]) {
+                return false;
+            }
+            used[slot] = true;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the first elementary field (depth first) owning an 88-level whose value is a record type value.
+     */
+    private static CobolField findDiscriminator(List<CobolField> fields, List<String> values) {
+        for (CobolField field : fields) {
+            if (field.isElementary()) {
+                for (CobolField.ConditionName condition : field.getConditionNames()) {
+                    if (values.contains(condition.getValue())) {
+                        return field;
+                    }
+                }
+            }
+            CobolField found = findDiscriminator(field.getChildren(), values);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Encodes a VALUE literal as it is stored in the field: text padded with spaces, unsigned zoned numbers
+     * padded with leading zeros.
+     */
+    private static byte[] encode(String value, CobolField field, CodePage codePage) {
+        FieldType type = FieldType.of(field);
+        if (type != FieldType.ALPHANUMERIC && (type != FieldType.ZONED_DECIMAL || field.isSigned())) {
+            throw new IllegalArgumentException("Record type field " + field.getName() +
+                    " must be alphanumeric or unsigned zoned decimal");
+        }
+
+        int fieldLength = field.getLength();
+        if (value.length() > fieldLength) {
+            throw new IllegalArgumentException("Record type value '" + value + "' is longer than field " +
+                    field.getName());
+        }
+
+        byte[] bytes = new byte[fieldLength];
+        int padding = fieldLength - value.length();
+        if (type == FieldType.ALPHANUMERIC) {
+            Arrays.fill(bytes, value.length(), fieldLength, codePage.getSpace());
+            for (int i = 0; i < value.length(); i++) {
+                bytes[i] = codePage.toByte(value.charAt(i));
+            }
+        } else {
+            Arrays.fill(bytes, 0, padding, codePage.toByte('0'));
+            for (int i = 0; i < value.length(); i++) {
+                bytes[padding + i] = codePage.toByte(value.charAt(i));
+            }
+        }
+        return bytes;
+    }
+
+    private static long pack(ByteBuffer buffer, int start, int length) {
+        long key = 0;
+        for (int i = 0; i < length; i++) {
+            key = key << 8 | (buffer.get(start + i) & 0xFF);
+        }
+        return key;
+    }
+
+    private static long hash(ByteBuffer buffer, int start, int length) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ (buffer.get(start + i) & 0xFF)) * 0x100000001B3L;
+        }
+        // Final avalanche so the multiplier sees every input bit
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        return h ^ h >>> 33;
+    }
+
+    /**
+     * Encoded record type value and its fingerprint: the bytes themselves packed into a long for values of up
+     * to eight bytes, a hash checked against the bytes for longer ones.
+     */
+    record Key(byte[] bytes, long fingerprint) {
+        static Key of(byte[] bytes) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new Key(bytes, bytes.length <= Long.BYTES ? pack(buffer, 0, bytes.length) : hash(buffer, 0, bytes.length));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && Arrays.equals(bytes, key.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bytes);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package org.example.parser.util;
 
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -27,6 +29,10 @@ public class FileUtils {
         Files.writeString(path, json);
     }
 
+    public static OutputStream newBufferedOutputStream(Path path) throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024);
+    }
+
     public static boolean isValidCopybookFile(String filePath) {
         if (filePath == null || filePath.trim().isEmpty()) {
             return false;
@@ -1,9 +1,12 @@
 package org.example.parser.util;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import java.io.IOException;
+import java.io.OutputStream;
 
 public class JsonUtils {
     private static final ObjectMapper mapper = new ObjectMapper();
@@ -24,4 +27,27 @@ public class JsonUtils {
     public static String toPrettyJson(Object object) throws IOException {
         return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(object);
     }
+
+    /**
+     * Streams the same output as {@link #toJson(Object)} to {@code out} without building it in memory.
+     * The stream is flushed but left open.
+     */
+    public static void writeJson(Object object, OutputStream out) throws IOException {
+        write(mapper.writer(), object, out);
+    }
+
+    /**
+     * Streams the same output as {@link #toPrettyJson(Object)} to {@code out} without building it in memory.
+     * The stream is flushed but left open.
+     */
+    public static void writePrettyJson(Object object, OutputStream out) throws IOException {
+        write(mapper.writerWithDefaultPrettyPrinter(), object, out);
+    }
+
+    private static void write(ObjectWriter writer, Object object, OutputStream out) throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            writer.writeValue(generator, object);
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package org.example.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CobolFieldTest {
+
+    @Test
+    void storageLengthIgnoresLayoutLength() {
+        CobolField field = elementary("NAME", "X(20)");
+        field.setStartPosition(5);
+
+        field.setLength(field.getStorageLength());
+        field.setLength(3);
+
+        assertThat(field.getStorageLength()).isEqualTo(20);
+        assertThat(field.getEndPosition()).isEqualTo(7);
+    }
+
+    @Test
+    void storageLengthFollowsPictureUsageAndSign() {
+        CobolField field = elementary("AMOUNT", "S9(7)V99");
+        assertThat(field.getStorageLength()).isEqualTo(9);
+
+        field.setSignSeparate(true);
+        assertThat(field.getStorageLength()).isEqualTo(10);
+
+        field.setUsageType(CobolUsage.COMPUTATIONAL_3);
+        assertThat(field.getStorageLength()).isEqualTo(5);
+    }
+
+    @Test
+    void descendantChangesResetEnclosingGroupLengths() {
+        CobolField record = new CobolField(1, "REC");
+        CobolField group = new CobolField(5, "GROUP");
+        CobolField leaf = elementary("LEAF", "X(4)");
+        group.addChild(leaf);
+        record.addChild(group);
+        record.addChild(elementary("TAIL", "X(2)"));
+        assertThat(record.getGroupLength()).isEqualTo(6);
+
+        leaf.setPicture("X(10)");
+        assertThat(group.getGroupLength()).isEqualTo(10);
+        assertThat(record.getGroupLength()).isEqualTo(12);
+
+        group.setOccursCount(3);
+        assertThat(record.getGroupLength()).isEqualTo(32);
+
+        group.setChildren(new ArrayList<>());
+        assertThat(record.getGroupLength()).isEqualTo(2);
+    }
+
+    @Test
+    void childListIsReadOnly() {
+        CobolField group = new CobolField(5, "GROUP");
+        group.addChild(elementary("LEAF", "X(4)"));
+
+        assertThatThrownBy(() -> group.getChildren().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static CobolField elementary(String name, String picture) {
+        CobolField field = new CobolField(10, name);
+        field.setPicture(picture);
+        return field;
+    }
+}
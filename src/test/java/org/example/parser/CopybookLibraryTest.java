@@ -0,0 +1,53 @@
+package org.example.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CopybookLibraryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsDirectAndNestedMembersAgainstTheCopybook() throws IOException {
+        Path copylib = Files.createDirectory(directory.resolve("copylib"));
+        Path address = Files.writeString(copylib.resolve("ADDRESS.cpy"), "05 STREET PIC X(20).\nCOPY ZIP.\n");
+        Path zip = Files.writeString(copylib.resolve("ZIP.cpy"), "05 ZIP-CODE PIC 9(5).\n");
+        Path customer = Files.writeString(directory.resolve("customer.cbl"), "01 CUSTOMER.\n    COPY ADDRESS.\n");
+        Path order = Files.writeString(directory.resolve("order.cbl"), "01 ORDER-REC.\n    COPY ZIP.\n");
+
+        CopybookLibrary library = new CopybookLibrary(List.of(copylib));
+        CopybookParser parser = new CopybookParser(ParserOptions.defaults(), library);
+        parser.parseCopybook(customer);
+        parser.parseCopybook(order);
+
+        assertThat(library.getDependents(address)).containsExactly(customer.toAbsolutePath().normalize());
+        assertThat(library.getDependents(zip)).containsExactlyInAnyOrder(
+                customer.toAbsolutePath().normalize(), order.toAbsolutePath().normalize());
+        assertThat(library.getIncludedMembers()).containsExactlyInAnyOrder(
+                address.toAbsolutePath().normalize(), zip.toAbsolutePath().normalize());
+    }
+
+    @Test
+    void forgetsMembersNoLongerCopied() throws IOException {
+        Path zip = Files.writeString(directory.resolve("ZIP.cpy"), "05 ZIP-CODE PIC 9(5).\n");
+        Path order = Files.writeString(directory.resolve("order.cbl"), "01 ORDER-REC.\n    COPY ZIP.\n");
+
+        CopybookLibrary library = new CopybookLibrary(List.of(directory));
+        CopybookParser parser = new CopybookParser(ParserOptions.defaults(), library);
+        parser.parseCopybook(order);
+        assertThat(library.getDependents(zip)).hasSize(1);
+
+        Files.writeString(order, "01 ORDER-REC.\n    05 ZIP-CODE PIC 9(5).\n");
+        parser.parseCopybook(order);
+        assertThat(library.getDependents(zip)).isEmpty();
+        assertThat(library.getIncludedMembers()).isEmpty();
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.parser;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the linear-time layout construction: parsing ten times as many lines may not cost much more per line.
+ * A quadratic pass makes the per-line time grow about tenfold between the two sizes, well past the allowed
+ * factor, while timing noise stays far below it.
+ *
+ * <p>Being a wall-clock check it is tagged {@code perf} and left out of the default build; run it with
+ * {@code mvn -Pperf test}.
+ */
+@Tag("perf")
+class CopybookParserScalingTest {
+    private static final int SMALL = 10_000;
+    private static final int LARGE = 100_000;
+    private static final double MAX_PER_LINE_GROWTH = 4.0;
+    private static final int RUNS = 5;
+
+    @Test
+    void sharedRecordTypeLayoutsScaleLinearly() throws IOException {
+        assertLinear(CopybookParserScalingTest::sharedRecordType);
+    }
+
+    @Test
+    void redefinesRecordsScaleLinearly() throws IOException {
+        assertLinear(CopybookParserScalingTest::redefinesRecords);
+    }
+
+    private static void assertLinear(IntFunction<List<String>> copybook) throws IOException {
+        List<String> small = copybook.apply(SMALL);
+        List<String> large = copybook.apply(LARGE);
+        assertThat(large).hasSizeGreaterThanOrEqualTo(LARGE);
+
+        // Warm up both sizes before measuring so the JIT has compiled the parser
+        bestNanosPerLine(small);
+        bestNanosPerLine(large);
+
+        double smallNanos = bestNanosPerLine(small);
+        double largeNanos = bestNanosPerLine(large);
+        assertThat(largeNanos / smallNanos)
+                .as("ns/line at %,d lines (%.0f) vs %,d lines (%.0f)", large.size(), largeNanos, small.size(),
+                        smallNanos)
+                .isLessThan(MAX_PER_LINE_GROWTH);
+    }
+
+    private static double bestNanosPerLine(List<String> lines) throws IOException {
+        CopybookParser parser = new CopybookParser();
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            parser.parseCopybook("scaling.cbl", lines);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return (double) best / lines.size();
+    }
+
+    /**
+     * One record whose header and detail layouts share a record type field, each REDEFINES-ing fields of its own.
+     */
+    private static List<String> sharedRecordType(int lineCount) {
+        List<String> lines = new ArrayList<>(lineCount + 16);
+        lines.add("      * REC LEN: 100");
+        lines.add("       01 TRANSACTION-FILE.");
+        lines.add("          05 RECORD-TYPE PIC X(2).");
+        lines.add("             88 HDR-REC VALUE 'HD'.");
+        lines.add("             88 DTL-REC VALUE 'DT'.");
+        lines.add("          05 HEADER-RECORD.");
+        addFields(lines, "10", "H", lineCount / 2);
+        lines.add("          05 DETAIL-RECORD REDEFINES HEADER-RECORD.");
+        addFields(lines, "10", "D", lineCount - lines.size());
+        return lines;
+    }
+
+    /**
+     * A base record redefined by separate 01-level records of twenty fields, each with its own record type.
+     */
+    private static List<String> redefinesRecords(int lineCount) {
+        List<String> lines = new ArrayList<>(lineCount + 32);
+        lines.add("      * REC LEN: 202");
+        lines.add("       01 BASE-REC.");
+        lines.add("          05 REC-TYPE PIC X(2).");
+        lines.add("          05 FILLER PIC X(200).");
+        for (int record = 1; lines.size() < lineCount; record++) {
+            String name = "R" + record;
+            lines.add("       01 " + name + "-REC REDEFINES BASE-REC.");
+            lines.add("          05 " + name + "-TYPE PIC X(2).");
+            lines.add("             88 IS-" + name + " VALUE '" + record % 100 + "'.");
+            addFields(lines, "05", name + "-", 20);
+        }
+        return lines;
+    }
+
+    /**
+     * Adds elementary fields, every fifth one REDEFINES-ing the field before it.
+     */
+    private static void addFields(List<String> lines, String level, String prefix, int count) {
+        for (int i = 1; i <= count; i++) {
+            String redefines = i % 5 == 0 ? " REDEFINES " + prefix + "F" + (i - 1) : "";
+            lines.add("             " + level + " " + prefix + "F" + i + redefines + " PIC X(10).");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.parser;
+
+import org.example.parser.record.CompiledLayout;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CopybookParserTest {
+    private static final List<String> NESTED_TABLES = List.of(
+            "      * REC LEN: 32",
+            "       01 BASE                PIC X(32).",
+            "       01 REC REDEFINES BASE.",
+            "          05 OUTER OCCURS 2.",
+            "             10 OKEY          PIC X(2).",
+            "             10 INNER OCCURS 3.",
+            "                15 IVAL       PIC X(3).",
+            "          05 TAIL             PIC X(4).",
+            "          05 CODES            PIC X(2) OCCURS 3.");
+
+    @Test
+    void expandsNestedAndElementaryTables() throws IOException {
+        Map<String, Integer> offsets = offsets(new CopybookParser().parseCopybook("nested.cpy", NESTED_TABLES));
+
+        assertThat(offsets).containsExactly(
+                Map.entry("OKEY(1)", 0), Map.entry("IVAL(1,1)", 2), Map.entry("IVAL(1,2)", 5),
+                Map.entry("IVAL(1,3)", 8), Map.entry("OKEY(2)", 11), Map.entry("IVAL(2,1)", 13),
+                Map.entry("IVAL(2,2)", 16), Map.entry("IVAL(2,3)", 19), Map.entry("TAIL", 22),
+                Map.entry("CODES(1)", 26), Map.entry("CODES(2)", 28), Map.entry("CODES(3)", 30));
+    }
+
+    @Test
+    void compactOccursMatchesEagerExpansion() throws IOException {
+        CopybookParser.ParseResult eager = new CopybookParser().parseCopybook("nested.cpy", NESTED_TABLES);
+        CopybookParser.ParseResult compact = new CopybookParser(ParserOptions.defaults().withCompactOccurs(true))
+                .parseCopybook("nested.cpy", NESTED_TABLES);
+
+        assertThat(offsets(compact)).containsExactlyEntriesOf(offsets(eager));
+
+        CobolField outer = compact.getRecordLayouts().get(0).getFields().get(0);
+        assertThat(outer.getName()).isEqualTo("OUTER");
+        assertThat(outer.getOccursStride()).isEqualTo(11);
+        assertThat(outer.getLength()).isEqualTo(22);
+        assertThat(outer.getChildren().get(1).getOccursStride()).isEqualTo(3);
+    }
+
+    @Test
+    void expandsCompactTableLikeEagerMode() throws IOException {
+        CobolField eager = new CopybookParser().parseCopybook("nested.cpy", NESTED_TABLES)
+                .getRecordLayouts().get(0).getFields().get(0);
+        CobolField compact = new CopybookParser(ParserOptions.defaults().withCompactOccurs(true))
+                .parseCopybook("nested.cpy", NESTED_TABLES).getRecordLayouts().get(0).getFields().get(0);
+
+        List<CobolField.ArrayElement> expanded = compact.expandArrayElements();
+
+        assertThat(expanded).hasSameSizeAs(eager.getArrayElements());
+        for (int i = 0; i < expanded.size(); i++) {
+            assertThat(expanded.get(i).getFields())
+                    .extracting(CobolField.FieldPosition::getName, CobolField.FieldPosition::getStartPosition)
+                    .containsExactlyElementsOf(eager.getArrayElements().get(i).getFields().stream()
+                            .map(position -> tuple(position.getName(),
+                                    position.getStartPosition()))
+                            .toList());
+        }
+    }
+
+    @Test
+    void compilesCopybookWithoutRedefinesFromItsRecord() throws IOException {
+        CopybookParser.ParseResult result = new CopybookParser().parseCopybook("customer.cbl", List.of(
+                "       01 CUSTOMER-RECORD.",
+                "           03 CUSTOMER-ID          PIC 9(6).",
+                "           03 CUSTOMER-NAME.",
+                "               05 FIRST-NAME       PIC X(20).",
+                "               05 LAST-NAME        PIC X(25).",
+                "           03 ACCOUNT-BALANCE      PIC S9(7)V99 COMP-3.",
+                "           03 FILLER               PIC X(10)."));
+
+        List<CompiledLayout> layouts = CompiledLayout.compile(result);
+
+        assertThat(layouts).hasSize(1);
+        assertThat(layouts.get(0).getName()).isEqualTo("CUSTOMER-RECORD");
+        assertThat(layouts.get(0).getRecordLength()).isEqualTo(66);
+        assertThat(offsets(result)).containsExactly(Map.entry("CUSTOMER-ID", 0), Map.entry("FIRST-NAME", 6),
+                Map.entry("LAST-NAME", 26), Map.entry("ACCOUNT-BALANCE", 51));
+    }
+
+    @Test
+    void keepsDeclaredRecordLengthWithoutRedefines() throws IOException {
+        CopybookParser.ParseResult result = new CopybookParser().parseCopybook("padded.cbl", List.of(
+                "      * REC LEN: 80",
+                "       01 PADDED.",
+                "          05 KEY-FIELD PIC X(8)."));
+
+        assertThat(CompiledLayout.compile(result).get(0).getRecordLength()).isEqualTo(80);
+    }
+
+    @Test
+    void rejectsCopybookWithoutFields() throws IOException {
+        CopybookParser.ParseResult result = new CopybookParser().parseCopybook("empty.cbl", List.of(
+                "      * nothing but a comment"));
+
+        assertThatThrownBy(() -> CompiledLayout.compile(result)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void freezeReachesFieldsOfExpandedTables() throws IOException {
+        CopybookParser.ParseResult result = new CopybookParser().parseCopybook("nested.cpy", NESTED_TABLES).freeze();
+
+        List<CobolField> sources = new ArrayList<>();
+        for (CobolField field : result.getRecordLayouts().get(0).getFields()) {
+            collectSources(field, sources);
+        }
+
+        assertThat(sources).isNotEmpty().allMatch(CobolField::isFrozen);
+        assertThatThrownBy(() -> sources.get(0).setName("X")).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void collectSources(CobolField field, List<CobolField> sources) {
+        for (CobolField.ArrayElement element : field.getArrayElements()) {
+            for (CobolField.FieldPosition position : element.getFields()) {
+                // An elementary table's positions point back at the table itself
+                if (position.getSource() != field && !sources.contains(position.getSource())) {
+                    sources.add(position.getSource());
+                    collectSources(position.getSource(), sources);
+                }
+            }
+        }
+        for (CobolField child : field.getChildren()) {
+            collectSources(child, sources);
+        }
+    }
+
+    private static Map<String, Integer> offsets(CopybookParser.ParseResult result) {
+        CompiledLayout layout = CompiledLayout.compile(result).get(0);
+        Map<String, Integer> offsets = new LinkedHashMap<>();
+        for (int i = 0; i < layout.getFieldCount(); i++) {
+            offsets.put(layout.getFieldName(i), layout.getOffset(i));
+        }
+        return offsets;
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CopybookTokenizerTest {
+
+    @Test
+    void keepsIndentedFreeFormLevelNumbers() {
+        List<CopybookTokenizer.Token> tokens = CopybookTokenizer.tokenize(List.of(
+                "01 REC.",
+                "    05 A PIC X(3).",
+                "    05 B PIC 9(4)."));
+
+        assertThat(tokens).extracting(token -> token.name).containsExactly("REC", "A", "B");
+        assertThat(tokens).extracting(token -> token.level).containsExactly(1, 5, 5);
+    }
+
+    @Test
+    void doesNotReadIndentedNameAsIndicator() {
+        List<CopybookTokenizer.Token> tokens = CopybookTokenizer.tokenize(List.of(
+                "   01 REC.",
+                "   05 DESCRIPTION PIC X(5)."));
+
+        assertThat(tokens).extracting(token -> token.name).containsExactly("REC", "DESCRIPTION");
+        assertThat(tokens.get(1).picture).isEqualTo("X(5)");
+    }
+
+    @Test
+    void dropsSequenceAndIdentificationAreasInFixedFormat() {
+        List<CopybookTokenizer.Token> tokens = CopybookTokenizer.tokenize(List.of(
+                "000100 01  REC.                                                         CUST0001",
+                "000200     05  AMOUNT      PIC S9(7)V99 COMP-3.                         CUST0002",
+                "000300*    05  OLD-FIELD   PIC X(10).                                   CUST0003",
+                "000400     05  NAME        PIC X(20).                                   CUST0004"));
+
+        assertThat(tokens).extracting(token -> token.name).containsExactly("REC", "AMOUNT", "NAME");
+        assertThat(tokens.get(1).usage).isEqualTo("COMP-3");
+        assertThat(tokens.get(2).originalLine).isEqualTo("05  NAME        PIC X(20).");
+    }
+
+    @Test
+    void treatsDebugLinesAsComments() {
+        List<CopybookTokenizer.Token> tokens = CopybookTokenizer.tokenize(List.of(
+                "       01  REC.",
+                "      D    05  TRACE-FLAG  PIC X.",
+                "           05  NAME        PIC X(20)."));
+
+        assertThat(tokens).extracting(token -> token.name).containsExactly("REC", "NAME");
+    }
+
+    @Test
+    void joinsContinuationLines() {
+        List<CopybookTokenizer.Token> tokens = CopybookTokenizer.tokenize(List.of(
+                "000100 01  REC.",
+                "000200     05  STATUS-CODE PIC X(2)",
+                "000300-        VALUE 'OK'.",
+                "000400     05  NAME        PIC X(20)."));
+
+        assertThat(tokens).extracting(token -> token.name).containsExactly("REC", "STATUS-CODE", "NAME");
+        assertThat(tokens.get(1).picture).isEqualTo("X(2)");
+        assertThat(tokens.get(1).value).isEqualTo("OK");
+    }
+
+    @Test
+    void decidesFormatForWholeSource() {
+        assertThat(CopybookTokenizer.isFixedFormat(List.of("       01 REC.", "000200     05 A PIC X."))).isTrue();
+        assertThat(CopybookTokenizer.isFixedFormat(List.of("       01 REC.", "    05 A PIC X."))).isFalse();
+        assertThat(CopybookTokenizer.isFixedFormat(List.of("01 REC.", "       05 A PIC X."))).isFalse();
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.parser;
+
+import org.example.parser.record.CompiledLayout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LayoutCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void expandsCopyMembersAndReparsesWhenOneChanges() throws IOException {
+        Path member = Files.writeString(directory.resolve("ADDRESS.cpy"), "05 STREET PIC X(20).\n");
+        Path copybook = Files.writeString(directory.resolve("customer.cbl"),
+                "01 CUSTOMER.\n    05 ID PIC 9(5).\n    COPY ADDRESS.\n");
+        CopybookLibrary library = new CopybookLibrary(List.of(directory));
+        LayoutCache cache = new LayoutCache(8, library);
+
+        CopybookParser.ParseResult first = cache.get(copybook);
+        assertThat(fieldNames(first)).containsExactly("ID", "STREET");
+        assertThat(cache.get(copybook)).isSameAs(first);
+        assertThat(library.getDependents(member)).containsExactly(copybook.toAbsolutePath().normalize());
+
+        Files.writeString(member, "05 STREET PIC X(20).\n05 CITY PIC X(10).\n");
+        CopybookParser.ParseResult edited = cache.get(copybook);
+
+        assertThat(fieldNames(edited)).containsExactly("ID", "STREET", "CITY");
+        assertThat(cache.stats().misses()).isEqualTo(2);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void countsHitsAndMisses() throws IOException {
+        Path copybook = copybook("a.cbl", "A-FIELD");
+        LayoutCache cache = new LayoutCache(4);
+
+        CopybookParser.ParseResult first = cache.get(copybook);
+        assertThat(cache.get(copybook)).isSameAs(first);
+        assertThat(cache.get(copybook)).isSameAs(first);
+
+        LayoutCache.Stats stats = cache.stats();
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.hits()).isEqualTo(2);
+        assertThat(stats.hitRate()).isEqualTo(2.0 / 3);
+        assertThat(first.isFrozen()).isTrue();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() throws IOException {
+        Path a = copybook("a.cbl", "A-FIELD");
+        Path b = copybook("b.cbl", "B-FIELD");
+        Path c = copybook("c.cbl", "C-FIELD");
+        LayoutCache cache = new LayoutCache(2);
+
+        CopybookParser.ParseResult first = cache.get(a);
+        cache.get(b);
+        cache.get(a);
+        cache.get(c);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        assertThat(cache.get(a)).isSameAs(first);
+        cache.get(b);
+        assertThat(cache.stats().misses()).isEqualTo(4);
+    }
+
+    @Test
+    void keysOnParserOptions() throws IOException {
+        Path copybook = Files.writeString(directory.resolve("table.cbl"),
+                "01 REC.\n    05 ITEM OCCURS 3.\n        10 CODE-X PIC X(2).\n");
+        LayoutCache cache = new LayoutCache(4);
+
+        CopybookParser.ParseResult eager = cache.get(copybook, ParserOptions.defaults());
+        CopybookParser.ParseResult compact = cache.get(copybook, ParserOptions.defaults().withCompactOccurs(true));
+
+        assertThat(compact).isNotSameAs(eager);
+        assertThat(cache.stats().misses()).isEqualTo(2);
+        assertThat(compact.getRecordLayouts().get(0).getFields().get(0).getOccursStride()).isEqualTo(2);
+        assertThat(cache.get(copybook, ParserOptions.defaults())).isSameAs(eager);
+    }
+
+    @Test
+    void reparsesEditedCopybook() throws IOException {
+        Path copybook = copybook("a.cbl", "A-FIELD");
+        LayoutCache cache = new LayoutCache(4);
+
+        CopybookParser.ParseResult first = cache.get(copybook);
+        copybook("a.cbl", "OTHER-FIELD");
+
+        assertThat(fieldNames(cache.get(copybook))).containsExactly("OTHER-FIELD");
+        assertThat(cache.get(copybook)).isNotSameAs(first);
+        assertThat(cache.stats().misses()).isEqualTo(2);
+    }
+
+    private Path copybook(String fileName, String fieldName) throws IOException {
+        return Files.writeString(directory.resolve(fileName), "01 REC.\n    05 " + fieldName + " PIC X(4).\n");
+    }
+
+    private static List<String> fieldNames(CopybookParser.ParseResult result) {
+        CompiledLayout layout = CompiledLayout.compile(result).get(0);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < layout.getFieldCount(); i++) {
+            names.add(layout.getFieldName(i));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.parser.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class BinaryCodecTest {
+
+    @Test
+    void decodesBigEndianRegardlessOfBufferOrder() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] {(byte) 0xFF, (byte) 0xFE}).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertThat(BinaryCodec.decode(buffer, 0, 2, true)).isEqualTo(-2);
+        assertThat(BinaryCodec.decode(buffer, 0, 2, false)).isEqualTo(0xFFFE);
+    }
+
+    @Test
+    void zeroExtendsUnsignedFields() {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        BinaryCodec.encode(buffer, 0, 4, 0xFFFF_FFFFL, false, 0);
+
+        assertThat(BinaryCodec.decode(buffer, 0, 4, false)).isEqualTo(0xFFFF_FFFFL);
+        assertThat(BinaryCodec.decode(buffer, 0, 4, true)).isEqualTo(-1);
+    }
+
+    @Test
+    void roundTripsLongLimits() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+
+        BinaryCodec.encode(buffer, 0, 8, Long.MIN_VALUE, true, 0);
+        assertThat(BinaryCodec.decode(buffer, 0, 8, true)).isEqualTo(Long.MIN_VALUE);
+
+        BinaryCodec.encode(buffer, 0, 8, Long.MAX_VALUE, true, 0);
+        assertThat(BinaryCodec.decode(buffer, 0, 8, true)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void limitsCompFieldsToEighteenDigits() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+
+        BinaryCodec.encode(buffer, 0, 8, -999_999_999_999_999_999L, true, 18);
+        assertThat(BinaryCodec.decode(buffer, 0, 8, true, 18)).isEqualTo(-999_999_999_999_999_999L);
+
+        assertThatThrownBy(() -> BinaryCodec.encode(buffer, 0, 8, 1_000_000_000_000_000_000L, true, 18))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void truncatesToPictureDigits() {
+        ByteBuffer buffer = ByteBuffer.allocate(2);
+        BinaryCodec.encode(buffer, 0, 2, 12345, true, 0);
+
+        assertThat(BinaryCodec.decode(buffer, 0, 2, true, 4)).isEqualTo(2345);
+    }
+
+    @Test
+    void rejectsValuesOutsideTheField() {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+
+        assertThatThrownBy(() -> BinaryCodec.encode(buffer, 0, 2, 40_000, true, 0))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> BinaryCodec.encode(buffer, 0, 2, -1, false, 0))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> BinaryCodec.decode(buffer, 0, 3, true))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void decodesIbmHexFloats() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+
+        buffer.putInt(0, 0xC276A000);
+        assertThat(BinaryCodec.decodeHexFloat(buffer, 0)).isEqualTo(-118.625);
+
+        buffer.putLong(0, 0x4110_0000_0000_0000L);
+        assertThat(BinaryCodec.decodeHexDouble(buffer, 0)).isEqualTo(1.0);
+    }
+
+    @Test
+    void decodesHexFloatsBeyondTheFloatRange() {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+
+        buffer.putInt(0, 0x7F100000);
+        assertThat(BinaryCodec.decodeHexFloat(buffer, 0)).isEqualTo(Math.scalb(1.0, 248));
+
+        buffer.putInt(0, 0x00100000);
+        assertThat(BinaryCodec.decodeHexFloat(buffer, 0)).isEqualTo(Math.scalb(1.0, -260));
+
+        BinaryCodec.encodeHexFloat(buffer, 0, -7.0e75);
+        assertThat(BinaryCodec.decodeHexFloat(buffer, 0)).isCloseTo(-7.0e75, within(1.0e70));
+    }
+
+    @Test
+    void decodesUnsignedLongsAboveLongMaxValue() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putLong(0, -1L);
+
+        assertThatThrownBy(() -> BinaryCodec.decode(buffer, 0, 8, false))
+                .isInstanceOf(ArithmeticException.class);
+        assertThat(BinaryCodec.decode(buffer, 0, 8, false, 0, 2)).isEqualByComparingTo("184467440737095516.15");
+        assertThat(BinaryCodec.decode(buffer, 0, 8, false, 18)).isEqualTo(446_744_073_709_551_615L);
+        assertThat(BinaryCodec.decode(buffer, 0, 8, true)).isEqualTo(-1L);
+    }
+
+    @Test
+    void roundTripsHexFloats() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+
+        BinaryCodec.encodeHexFloat(buffer, 0, -118.625f);
+        assertThat(buffer.getInt(0)).isEqualTo(0xC276A000);
+
+        BinaryCodec.encodeHexDouble(buffer, 0, 0.1);
+        assertThat(BinaryCodec.decodeHexDouble(buffer, 0)).isEqualTo(0.1);
+
+        BinaryCodec.encodeHexDouble(buffer, 0, 0.0);
+        assertThat(buffer.getLong(0)).isZero();
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.parser.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackedDecimalCodecTest {
+
+    @Test
+    void decodesSignNibbles() {
+        assertThat(PackedDecimalCodec.decodeLong(bytes(0x12, 0x3C), 0, 2)).isEqualTo(123);
+        assertThat(PackedDecimalCodec.decodeLong(bytes(0x12, 0x3D), 0, 2)).isEqualTo(-123);
+        assertThat(PackedDecimalCodec.decodeLong(bytes(0x12, 0x3F), 0, 2)).isEqualTo(123);
+        assertThat(PackedDecimalCodec.decodeLong(bytes(0x12, 0x3B), 0, 2)).isEqualTo(-123);
+        assertThat(PackedDecimalCodec.decodeLong(bytes(0x12, 0x3A), 0, 2)).isEqualTo(123);
+        assertThat(PackedDecimalCodec.decodeLong(bytes(0x12, 0x3E), 0, 2)).isEqualTo(123);
+    }
+
+    @Test
+    void rejectsInvalidNibbles() {
+        assertThatThrownBy(() -> PackedDecimalCodec.decodeLong(bytes(0x12, 0x35), 0, 2))
+                .isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> PackedDecimalCodec.decodeLong(bytes(0x1A, 0x3C), 0, 2))
+                .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void encodesSignNibbles() {
+        ByteBuffer buffer = ByteBuffer.allocate(2);
+        PackedDecimalCodec.encodeLong(buffer, 0, 2, 123, true);
+        assertThat(buffer.array()).containsExactly(0x12, 0x3C);
+        PackedDecimalCodec.encodeLong(buffer, 0, 2, -123, true);
+        assertThat(buffer.array()).containsExactly(0x12, 0x3D);
+        PackedDecimalCodec.encodeLong(buffer, 0, 2, 123, false);
+        assertThat(buffer.array()).containsExactly(0x12, 0x3F);
+        assertThatThrownBy(() -> PackedDecimalCodec.encodeLong(buffer, 0, 2, -1, false))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> PackedDecimalCodec.encodeLong(buffer, 0, 2, 1000, true))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void roundTripsEighteenDigitsInTenBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(10);
+        long value = -999_999_999_999_999_999L;
+
+        PackedDecimalCodec.encodeLong(buffer, 0, 10, value, true);
+
+        assertThat(buffer.get(0)).isEqualTo((byte) 0x09);
+        assertThat(PackedDecimalCodec.decodeLong(buffer, 0, 10)).isEqualTo(value);
+        assertThat(PackedDecimalCodec.decode(buffer, 0, 10, 2)).isEqualTo(new BigDecimal("-9999999999999999.99"));
+    }
+
+    @Test
+    void roundTripsLongLimits() {
+        ByteBuffer buffer = ByteBuffer.allocate(10);
+
+        PackedDecimalCodec.encodeLong(buffer, 0, 10, Long.MIN_VALUE, true);
+        assertThat(PackedDecimalCodec.decodeLong(buffer, 0, 10)).isEqualTo(Long.MIN_VALUE);
+
+        PackedDecimalCodec.encodeLong(buffer, 0, 10, Long.MAX_VALUE, true);
+        assertThat(PackedDecimalCodec.decodeLong(buffer, 0, 10)).isEqualTo(Long.MAX_VALUE);
+        assertThat(PackedDecimalCodec.decode(buffer, 0, 10, 0)).isEqualTo(BigDecimal.valueOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void fallsBackToBigDecimalForWideFields() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        BigDecimal value = new BigDecimal("-1234567890123456789012345.678");
+
+        PackedDecimalCodec.encode(buffer, 0, 16, value, 3, true);
+
+        assertThat(PackedDecimalCodec.decode(buffer, 0, 16, 3)).isEqualTo(value);
+        assertThatThrownBy(() -> PackedDecimalCodec.decodeLong(buffer, 0, 16))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void rejectsValuesNeedingRounding() {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        assertThatThrownBy(() -> PackedDecimalCodec.encode(buffer, 0, 4, new BigDecimal("1.234"), 2, true))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    private static ByteBuffer bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+}
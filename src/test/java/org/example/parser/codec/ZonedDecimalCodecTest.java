@@ -0,0 +1,100 @@
+package org.example.parser.codec;
+
+import org.example.parser.codec.ZonedDecimalCodec.Sign;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ZonedDecimalCodecTest {
+
+    @Test
+    void decodesEbcdicOverpunch() {
+        ByteBuffer positive = bytes(0xF1, 0xF2, 0xC3);
+        ByteBuffer negative = bytes(0xF1, 0xF2, 0xD3);
+        ByteBuffer unsigned = bytes(0xF1, 0xF2, 0xF3);
+
+        assertThat(ZonedDecimalCodec.decodeLong(positive, 0, 3, Sign.TRAILING, true)).isEqualTo(123);
+        assertThat(ZonedDecimalCodec.decodeLong(negative, 0, 3, Sign.TRAILING, true)).isEqualTo(-123);
+        assertThat(ZonedDecimalCodec.decodeLong(unsigned, 0, 3, Sign.TRAILING, true)).isEqualTo(123);
+        assertThat(ZonedDecimalCodec.decodeLong(bytes(0xD1, 0xF2, 0xF3), 0, 3, Sign.LEADING, true)).isEqualTo(-123);
+    }
+
+    @Test
+    void decodesAsciiOverpunchConventions() {
+        assertThat(ZonedDecimalCodec.decodeLong(ascii("12s"), 0, 3, Sign.TRAILING, false)).isEqualTo(-123);
+        assertThat(ZonedDecimalCodec.decodeLong(ascii("12L"), 0, 3, Sign.TRAILING, false)).isEqualTo(-123);
+        assertThat(ZonedDecimalCodec.decodeLong(ascii("12C"), 0, 3, Sign.TRAILING, false)).isEqualTo(123);
+        assertThat(ZonedDecimalCodec.decodeLong(ascii("12}"), 0, 3, Sign.TRAILING, false)).isEqualTo(-120);
+        assertThat(ZonedDecimalCodec.decodeLong(ascii("12{"), 0, 3, Sign.TRAILING, false)).isEqualTo(120);
+    }
+
+    @Test
+    void decodesSeparateSigns() {
+        assertThat(ZonedDecimalCodec.decodeLong(ascii("-123"), 0, 4, Sign.LEADING_SEPARATE, false)).isEqualTo(-123);
+        assertThat(ZonedDecimalCodec.decodeLong(ascii("123+"), 0, 4, Sign.TRAILING_SEPARATE, false)).isEqualTo(123);
+        assertThat(ZonedDecimalCodec.decodeLong(bytes(0xF1, 0xF2, 0xF3, 0x60), 0, 4, Sign.TRAILING_SEPARATE, true))
+                .isEqualTo(-123);
+        assertThatThrownBy(() -> ZonedDecimalCodec.decodeLong(ascii("*123"), 0, 4, Sign.LEADING_SEPARATE, false))
+                .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void encodesPreferredSignForms() {
+        ByteBuffer buffer = ByteBuffer.allocate(3);
+
+        ZonedDecimalCodec.encodeLong(buffer, 0, 3, -123, Sign.TRAILING, true);
+        assertThat(buffer.array()).containsExactly(0xF1, 0xF2, 0xD3);
+        ZonedDecimalCodec.encodeLong(buffer, 0, 3, 123, Sign.TRAILING, true);
+        assertThat(buffer.array()).containsExactly(0xF1, 0xF2, 0xC3);
+        ZonedDecimalCodec.encodeLong(buffer, 0, 3, -123, Sign.TRAILING, false);
+        assertThat(new String(buffer.array(), StandardCharsets.US_ASCII)).isEqualTo("12s");
+        ZonedDecimalCodec.encodeLong(buffer, 0, 3, 7, Sign.NONE, false);
+        assertThat(new String(buffer.array(), StandardCharsets.US_ASCII)).isEqualTo("007");
+
+        assertThatThrownBy(() -> ZonedDecimalCodec.encodeLong(buffer, 0, 3, -1, Sign.NONE, false))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> ZonedDecimalCodec.encodeLong(buffer, 0, 3, 1000, Sign.TRAILING, false))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void roundTripsEighteenDigits() {
+        ByteBuffer buffer = ByteBuffer.allocate(19);
+        long value = -999_999_999_999_999_999L;
+
+        ZonedDecimalCodec.encodeLong(buffer, 0, 18, value, Sign.TRAILING, true);
+        assertThat(ZonedDecimalCodec.decodeLong(buffer, 0, 18, Sign.TRAILING, true)).isEqualTo(value);
+
+        ZonedDecimalCodec.encodeLong(buffer, 0, 19, value, Sign.LEADING_SEPARATE, false);
+        assertThat(ZonedDecimalCodec.decode(buffer, 0, 19, 2, Sign.LEADING_SEPARATE, false))
+                .isEqualTo(new BigDecimal("-9999999999999999.99"));
+    }
+
+    @Test
+    void roundTripsLongMinValueThroughWideField() {
+        ByteBuffer buffer = ByteBuffer.allocate(19);
+
+        ZonedDecimalCodec.encodeLong(buffer, 0, 19, Long.MIN_VALUE, Sign.TRAILING, true);
+
+        assertThat(ZonedDecimalCodec.decodeLong(buffer, 0, 19, Sign.TRAILING, true)).isEqualTo(Long.MIN_VALUE);
+        assertThat(ZonedDecimalCodec.decode(buffer, 0, 19, 0, Sign.TRAILING, true))
+                .isEqualTo(BigDecimal.valueOf(Long.MIN_VALUE));
+    }
+
+    private static ByteBuffer ascii(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static ByteBuffer bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+}
@@ -0,0 +1,252 @@
+package org.example.parser.record;
+
+import org.example.parser.codec.CodePage;
+import org.example.parser.codec.ZonedDecimalCodec;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that generated decoders return exactly what {@link RecordDecoder} returns, over random but valid
+ * records filled the way the benchmark FixtureGenerator fills them.
+ */
+class GeneratedRecordDecoderTest {
+    private static final List<CodePage> CODE_PAGES = List.of(CodePage.ASCII, CodePage.CP037);
+    private static final String TEXT = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
+    private static final int RECORDS = 200;
+
+    @Test
+    void matchesRecordDecoderForNarrowLayout() {
+        verify(randomLayout("NARROW", 12, 1));
+    }
+
+    @Test
+    void matchesRecordDecoderForLayoutSpanningSeveralMethods() {
+        verify(randomLayout("WIDE", DecoderGenerator.FIELDS_PER_METHOD * 2 + 7, 2));
+    }
+
+    @Test
+    void rejectsTooSmallBuffers() {
+        CompiledLayout layout = randomLayout("SMALL", 12, 3);
+        GeneratedRecordDecoder decoder = GeneratedRecordDecoder.generate(layout, CodePage.ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(layout.getRecordLength() - 1);
+
+        assertThatThrownBy(() -> decoder.decode(buffer, 0, new Object[layout.getFieldCount()]))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> decoder.decodeLongs(ByteBuffer.allocate(layout.getRecordLength()), 0, new long[1]))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    private static void verify(CompiledLayout layout) {
+        for (CodePage codePage : CODE_PAGES) {
+            GeneratedRecordDecoder generated = GeneratedRecordDecoder.generate(layout, codePage);
+            RecordDecoder reference = new RecordDecoder(layout, codePage);
+            SplittableRandom random = new SplittableRandom(codePage.getName().hashCode());
+            int count = layout.getFieldCount();
+
+            for (int record = 0; record < RECORDS; record++) {
+                ByteBuffer buffer = ByteBuffer.allocate(layout.getRecordLength() + 3);
+                int offset = record % 4;
+                fill(buffer, offset, layout, codePage, random);
+                reference.wrap(buffer, offset);
+
+                Object[] values = generated.decode(buffer, offset, new Object[count]);
+                assertThat(values).as("%s record %d", codePage, record)
+                        .containsExactly(reference.decode(new Object[count]));
+
+                long[] expected = new long[count];
+                boolean overflow = false;
+                for (int field = 0; field < count; field++) {
+                    if (layout.getType(field).isNumeric()) {
+                        try {
+                            expected[field] = reference.getLong(field);
+                        } catch (ArithmeticException e) {
+                            overflow = true;
+                        }
+                    }
+                }
+                if (overflow) {
+                    assertThatThrownBy(() -> generated.decodeLongs(buffer, offset, new long[count]))
+                            .as("%s record %d", codePage, record)
+                            .isInstanceOf(ArithmeticException.class);
+                } else {
+                    assertThat(generated.decodeLongs(buffer, offset, new long[count]))
+                            .as("%s record %d", codePage, record).containsExactly(expected);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds a layout that cycles through every field type, zoned sign convention and binary length, with
+     * random digits and scales, including decimals too long for a long and unsigned 8-byte binaries.
+     */
+    private static CompiledLayout randomLayout(String name, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ZonedDecimalCodec.Sign[] zonedSigns = ZonedDecimalCodec.Sign.values();
+        String[] names = new String[count];
+        int[] offsets = new int[count];
+        int[] lengths = new int[count];
+        FieldType[] types = new FieldType[count];
+        int[] digits = new int[count];
+        int[] scales = new int[count];
+        boolean[] signed = new boolean[count];
+        ZonedDecimalCodec.Sign[] signs = new ZonedDecimalCodec.Sign[count];
+
+        int offset = 0;
+        for (int field = 0; field < count; field++) {
+            FieldType type = FieldType.values()[field % FieldType.values().length];
+            int variant = field / FieldType.values().length;
+            names[field] = "FIELD-" + field;
+            types[field] = type;
+            signs[field] = ZonedDecimalCodec.Sign.NONE;
+            switch (type) {
+                case ALPHANUMERIC -> lengths[field] = 1 + random.nextInt(20);
+                case ZONED_DECIMAL -> {
+                    signs[field] = zonedSigns[variant % zonedSigns.length];
+                    signed[field] = signs[field] != ZonedDecimalCodec.Sign.NONE;
+                    digits[field] = 1 + random.nextInt(variant % 3 == 2 ? 31 : 18);
+                    lengths[field] = digits[field] + (signs[field].isSeparate() ? 1 : 0);
+                }
+                case PACKED_DECIMAL -> {
+                    signed[field] = variant % 2 == 0;
+                    digits[field] = 1 + random.nextInt(variant % 3 == 2 ? 31 : 18);
+                    lengths[field] = digits[field] / 2 + 1;
+                }
+                case BINARY, NATIVE_BINARY -> {
+                    int[] binaryLengths = {2, 4, 8};
+                    lengths[field] = binaryLengths[variant % 3];
+                    signed[field] = variant % 2 == 0;
+                    int maxDigits = lengths[field] == 2 ? 4 : lengths[field] == 4 ? 9 : 18;
+                    digits[field] = type == FieldType.BINARY ? 1 + random.nextInt(maxDigits) : maxDigits;
+                }
+                case FLOAT -> lengths[field] = 4;
+                case DOUBLE -> lengths[field] = 8;
+            }
+            if (type.isNumeric() && type != FieldType.FLOAT && type != FieldType.DOUBLE) {
+                scales[field] = random.nextInt(Math.min(digits[field], 5) + 1);
+            }
+            offsets[field] = offset;
+            offset += lengths[field];
+        }
+        return new CompiledLayout(name, offset, names, offsets, lengths, types, digits, scales, signed, signs);
+    }
+
+    private static void fill(ByteBuffer buffer, int offset, CompiledLayout layout, CodePage codePage,
+                             SplittableRandom random) {
+        for (int field = 0; field < layout.getFieldCount(); field++) {
+            int position = offset + layout.getOffset(field);
+            int length = layout.getLength(field);
+            switch (layout.getType(field)) {
+                case ALPHANUMERIC -> {
+                    for (int i = 0; i < length; i++) {
+                        buffer.put(position + i, codePage.toByte(TEXT.charAt(random.nextInt(TEXT.length()))));
+                    }
+                }
+                case ZONED_DECIMAL -> fillZoned(buffer, position, length, layout.getSign(field), codePage, random);
+                case PACKED_DECIMAL -> fillPacked(buffer, position, length, layout.getDigits(field),
+                        layout.isSigned(field), random);
+                case BINARY -> fillBinary(buffer, position, length, layout.getDigits(field), layout.isSigned(field),
+                        random);
+                case NATIVE_BINARY -> fillBinary(buffer, position, length, 0, layout.isSigned(field), random);
+                case FLOAT -> buffer.putInt(position, (int) hexFloat(6, random));
+                case DOUBLE -> buffer.putLong(position, hexFloat(14, random));
+            }
+        }
+    }
+
+    private static void fillZoned(ByteBuffer buffer, int position, int length, ZonedDecimalCodec.Sign sign,
+                                  CodePage codePage, SplittableRandom random) {
+        boolean negative = sign != ZonedDecimalCodec.Sign.NONE && random.nextBoolean();
+        int first = sign == ZonedDecimalCodec.Sign.LEADING_SEPARATE ? position + 1 : position;
+        int end = sign == ZonedDecimalCodec.Sign.TRAILING_SEPARATE ? position + length - 1 : position + length;
+        boolean large = large(random);
+        for (int i = first; i < end; i++) {
+            int digit = !large && end - i > 18 ? 0 : random.nextInt(10);
+            buffer.put(i, codePage.toByte((char) ('0' + digit)));
+        }
+
+        switch (sign) {
+            case NONE -> {
+            }
+            case TRAILING -> buffer.put(end - 1, overpunch(buffer.get(end - 1), negative, codePage));
+            case LEADING -> buffer.put(first, overpunch(buffer.get(first), negative, codePage));
+            case TRAILING_SEPARATE -> buffer.put(end, codePage.toByte(negative ? '-' : '+'));
+            case LEADING_SEPARATE -> buffer.put(position, codePage.toByte(negative ? '-' : '+'));
+        }
+    }
+
+    private static byte overpunch(byte digit, boolean negative, CodePage codePage) {
+        int value = digit & 0x0F;
+        if (codePage.isEbcdic()) {
+            return (byte) ((negative ? 0xD0 : 0xC0) | value);
+        }
+        return (byte) (negative ? 'p' + value : '0' + value);
+    }
+
+    private static void fillPacked(ByteBuffer buffer, int position, int length, int digits, boolean signed,
+                                   SplittableRandom random) {
+        int nibbles = length * 2 - 1;
+        int leadingZeros = Math.max(0, nibbles - (large(random) ? digits : Math.min(digits, 18)));
+        for (int i = 0; i < length; i++) {
+            int high = i * 2 < leadingZeros ? 0 : random.nextInt(10);
+            int low;
+            if (i == length - 1) {
+                low = !signed ? 0x0F : random.nextBoolean() ? 0x0D : 0x0C;
+            } else {
+                low = i * 2 + 1 < leadingZeros ? 0 : random.nextInt(10);
+            }
+            buffer.put(position + i, (byte) (high << 4 | low));
+        }
+    }
+
+    private static void fillBinary(ByteBuffer buffer, int position, int length, int digits, boolean signed,
+                                   SplittableRandom random) {
+        long value;
+        if (digits > 0 && digits < 19) {
+            long limit = 1;
+            for (int i = 0; i < digits; i++) {
+                limit *= 10;
+            }
+            value = random.nextLong(limit);
+            if (signed && random.nextBoolean()) {
+                value = -value;
+            }
+        } else {
+            value = random.nextLong();
+            if (!signed && length != Long.BYTES) {
+                value &= length == Short.BYTES ? 0xFFFF : 0xFFFF_FFFFL;
+            } else if (!signed && !large(random)) {
+                value &= Long.MAX_VALUE;
+            }
+        }
+
+        switch (length) {
+            case 2 -> buffer.putShort(position, (short) value);
+            case 4 -> buffer.putInt(position, (int) value);
+            case 8 -> buffer.putLong(position, value);
+            default -> throw new IllegalArgumentException("Unsupported binary field length " + length);
+        }
+    }
+
+    /**
+     * Whether a field that can hold values beyond a long gets one. Kept rare so that most records of wide
+     * layouts still decode as longs, while decodeLongs must reject the others like getLong does.
+     */
+    private static boolean large(SplittableRandom random) {
+        return random.nextInt(16) == 0;
+    }
+
+    private static long hexFloat(int fractionDigits, SplittableRandom random) {
+        int fractionBits = fractionDigits * 4;
+        long fraction = (1L + random.nextLong(15)) << (fractionBits - 4) | random.nextLong(1L << (fractionBits - 4));
+        long exponent = 64 + random.nextInt(-4, 5);
+        long sign = random.nextBoolean() ? 1 : 0;
+        return sign << (fractionBits + 7) | exponent << fractionBits | fraction;
+    }
+}
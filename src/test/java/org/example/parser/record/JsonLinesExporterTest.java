@@ -0,0 +1,41 @@
+package org.example.parser.record;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.example.parser.codec.ZonedDecimalCodec;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLinesExporterTest {
+    private static final CompiledLayout LAYOUT = new CompiledLayout("REC", 12, new String[] {"BIG", "AMOUNT"},
+            new int[] {0, 8}, new int[] {8, 4},
+            new FieldType[] {FieldType.NATIVE_BINARY, FieldType.PACKED_DECIMAL}, new int[] {18, 7},
+            new int[] {0, 2}, new boolean[] {true, true},
+            new ZonedDecimalCodec.Sign[] {ZonedDecimalCodec.Sign.NONE, ZonedDecimalCodec.Sign.NONE});
+
+    @Test
+    void writesLongMinValue() throws IOException {
+        assertThat(export(Long.MIN_VALUE, 0)).isEqualTo("{\"BIG\":-9223372036854775808,\"AMOUNT\":0.00}\n");
+    }
+
+    @Test
+    void writesScaledNegativeValues() throws IOException {
+        assertThat(export(Long.MAX_VALUE, -1234)).isEqualTo("{\"BIG\":9223372036854775807,\"AMOUNT\":-12.34}\n");
+        assertThat(export(-1, -5)).isEqualTo("{\"BIG\":-1,\"AMOUNT\":-0.05}\n");
+    }
+
+    private static String export(long big, long amount) throws IOException {
+        byte[] record = new byte[LAYOUT.getRecordLength()];
+        new RecordEncoder(LAYOUT).wrap(record).clear().setLong(0, big).setLong(1, amount);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = JsonLinesExporter.createGenerator(out)) {
+            new JsonLinesExporter(LAYOUT).write(new RecordDecoder(LAYOUT).wrap(record), generator);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.parser.record;
+
+import org.example.parser.codec.ZonedDecimalCodec;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LayoutSnapshotTest {
+
+    @Test
+    void roundTripsLayouts() throws IOException {
+        CompiledLayout layout = layout(20, new int[] {0, 12}, new int[] {12, 5});
+
+        List<CompiledLayout> read = LayoutSnapshot.read(ByteBuffer.wrap(snapshot(layout)));
+
+        assertThat(read).hasSize(1);
+        CompiledLayout copy = read.get(0);
+        assertThat(copy.getName()).isEqualTo("REC");
+        assertThat(copy.getRecordLength()).isEqualTo(20);
+        assertThat(copy.getFieldName(1)).isEqualTo("F2");
+        assertThat(copy.getOffset(1)).isEqualTo(12);
+        assertThat(copy.getLength(1)).isEqualTo(5);
+        assertThat(copy.getType(1)).isEqualTo(FieldType.PACKED_DECIMAL);
+    }
+
+    @Test
+    void rejectsFieldWhoseEndOverflows() {
+        CompiledLayout hostile = layout(20, new int[] {0, Integer.MAX_VALUE - 1}, new int[] {12, 5});
+
+        assertThatThrownBy(() -> LayoutSnapshot.read(ByteBuffer.wrap(snapshot(hostile))))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("F2");
+    }
+
+    @Test
+    void rejectsNegativeRecordLength() {
+        CompiledLayout hostile = layout(Integer.MIN_VALUE, new int[] {0, 12}, new int[] {12, 5});
+
+        assertThatThrownBy(() -> LayoutSnapshot.read(ByteBuffer.wrap(snapshot(hostile))))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static CompiledLayout layout(int recordLength, int[] offsets, int[] lengths) {
+        return new CompiledLayout("REC", recordLength, new String[] {"F1", "F2"}, offsets, lengths,
+                new FieldType[] {FieldType.ALPHANUMERIC, FieldType.PACKED_DECIMAL}, new int[] {0, 9},
+                new int[] {0, 2}, new boolean[] {false, true},
+                new ZonedDecimalCodec.Sign[] {ZonedDecimalCodec.Sign.NONE, ZonedDecimalCodec.Sign.NONE});
+    }
+
+    private static byte[] snapshot(CompiledLayout layout) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LayoutSnapshot.write(List.of(layout), out);
+        return out.toByteArray();
+    }
+}
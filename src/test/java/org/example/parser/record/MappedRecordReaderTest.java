@@ -0,0 +1,74 @@
+package org.example.parser.record;
+
+import org.example.parser.codec.CodePage;
+import org.example.parser.codec.ZonedDecimalCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedRecordReaderTest {
+    private static final CompiledLayout LAYOUT = new CompiledLayout("REC", 4, new String[] {"CODE"},
+            new int[] {0}, new int[] {4}, new FieldType[] {FieldType.ALPHANUMERIC}, new int[] {0},
+            new int[] {0}, new boolean[] {false}, new ZonedDecimalCodec.Sign[] {ZonedDecimalCodec.Sign.NONE});
+
+    private static final CompiledLayout EMPTY = new CompiledLayout("EMPTY", 0, new String[0], new int[0],
+            new int[0], new FieldType[0], new int[0], new int[0], new boolean[0], new ZonedDecimalCodec.Sign[0]);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void leavesCallerChannelOpenOnPartialRecord() throws IOException {
+        try (FileChannel channel = MappedRecordReader.openChannel(write("ABCDEF"))) {
+            assertThatThrownBy(() -> new MappedRecordReader(LAYOUT, CodePage.ASCII, channel, false, 0, -1,
+                    MappedRecordReader.DEFAULT_WINDOW_SIZE))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("not a multiple of record length 4");
+            assertThat(channel.isOpen()).isTrue();
+            assertThat(channel.size()).isEqualTo(6);
+        }
+    }
+
+    @Test
+    void closesOwnedChannelOnPartialRecord() throws IOException {
+        FileChannel channel = MappedRecordReader.openChannel(write("ABCDEF"));
+
+        assertThatThrownBy(() -> new MappedRecordReader(LAYOUT, CodePage.ASCII, channel, true, 0, -1,
+                MappedRecordReader.DEFAULT_WINDOW_SIZE)).isInstanceOf(IOException.class);
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    void closesOwnedChannelWhenLayoutHasNoRecordLength() throws IOException {
+        FileChannel channel = MappedRecordReader.openChannel(write("ABCD"));
+
+        assertThatThrownBy(() -> new MappedRecordReader(EMPTY, CodePage.ASCII, channel, true, 0, -1,
+                MappedRecordReader.DEFAULT_WINDOW_SIZE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("has no record length");
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    void readsWholeRecords() throws IOException {
+        try (MappedRecordReader reader = new MappedRecordReader(LAYOUT, write("ABCDWXYZ"))) {
+            assertThat(reader.getRecordCount()).isEqualTo(2);
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.record().getString(0)).isEqualTo("ABCD");
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.record().getString(0)).isEqualTo("WXYZ");
+            assertThat(reader.next()).isFalse();
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(directory.resolve("data.dat"), content);
+    }
+}
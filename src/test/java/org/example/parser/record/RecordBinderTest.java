@@ -0,0 +1,155 @@
+package org.example.parser.record;
+
+import org.example.parser.CopybookParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecordBinderTest {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static CompiledLayout layout;
+    private static byte[] record;
+
+    record Customer(long customerId, String customerName, BigDecimal balance, int visitCount, Object customerStatus,
+                    String[] phone) {
+    }
+
+    record Amounts(double balance, Long customerId, Integer visitCount) {
+    }
+
+    record Unmatched(long customerId, String nickname) {
+    }
+
+    record ScaledAsLong(long balance) {
+    }
+
+    record NumberAsString(String customerId) {
+    }
+
+    public static class CustomerBean {
+        private long customerId;
+        private String customerName;
+        private BigDecimal balance;
+        private long[] phoneNumbers;
+        private String note = "untouched";
+
+        public void setCustomerId(String customerId) {
+            throw new AssertionError("String setter must not be bound");
+        }
+
+        public void setCustomerId(long customerId) {
+            this.customerId = customerId;
+        }
+
+        public void setCustomerName(String customerName) {
+            this.customerName = customerName;
+        }
+
+        public void setBalance(long balance) {
+            throw new AssertionError("A scaled field must not be bound to long");
+        }
+
+        public void setBalance(BigDecimal balance) {
+            this.balance = balance;
+        }
+
+        public void setPhone(long[] phoneNumbers) {
+            this.phoneNumbers = phoneNumbers;
+        }
+
+        public void setNote(String note) {
+            this.note = note;
+        }
+    }
+
+    @BeforeAll
+    static void encodeRecord() throws IOException {
+        CopybookParser.ParseResult result = new CopybookParser().parseCopybook("customer.cbl", List.of(
+                "       01 CUSTOMER.",
+                "          05 CUSTOMER-ID     PIC 9(9) COMP.",
+                "          05 CUSTOMER-NAME   PIC X(10).",
+                "          05 BALANCE         PIC S9(7)V99 COMP-3.",
+                "          05 VISIT-COUNT     PIC 9(4).",
+                "          05 CUSTOMER-STATUS PIC X(1).",
+                "          05 PHONE           PIC X(4) OCCURS 2."));
+        layout = CompiledLayout.compile(result).get(0);
+        record = new byte[layout.getRecordLength()];
+        new RecordEncoder(layout).wrap(record).clear()
+                .setValue(layout.indexOf("CUSTOMER-ID"), 123456789L)
+                .setValue(layout.indexOf("CUSTOMER-NAME"), "ALICE")
+                .setValue(layout.indexOf("BALANCE"), new BigDecimal("-1234.56"))
+                .setValue(layout.indexOf("VISIT-COUNT"), 42L)
+                .setValue(layout.indexOf("CUSTOMER-STATUS"), "A")
+                .setValue(layout.indexOf("PHONE(1)"), "5551")
+                .setValue(layout.indexOf("PHONE(2)"), "5552");
+    }
+
+    @Test
+    void convertsCobolNamesToPropertyNames() {
+        assertThat(RecordBinder.propertyName("CUSTOMER-ID")).isEqualTo("customerId");
+        assertThat(RecordBinder.propertyName("WS_TOTAL-AMT")).isEqualTo("wsTotalAmt");
+        assertThat(RecordBinder.propertyName("-LEADING")).isEqualTo("leading");
+    }
+
+    @Test
+    void bindsRecordComponentsAndTables() {
+        Customer customer = RecordBinder.of(layout, Customer.class, LOOKUP).bind(decoder());
+
+        assertThat(customer.customerId()).isEqualTo(123456789L);
+        assertThat(customer.customerName()).isEqualTo("ALICE     ");
+        assertThat(customer.balance()).isEqualByComparingTo("-1234.56");
+        assertThat(customer.visitCount()).isEqualTo(42);
+        assertThat(customer.customerStatus()).isEqualTo("A");
+        assertThat(customer.phone()).containsExactly("5551", "5552");
+    }
+
+    @Test
+    void rejectsRecordComponentsWithoutFields() {
+        assertThatThrownBy(() -> RecordBinder.of(layout, Unmatched.class, LOOKUP))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("matches component nickname");
+    }
+
+    @Test
+    void rejectsRecordComponentsOfTheWrongType() {
+        assertThatThrownBy(() -> RecordBinder.of(layout, ScaledAsLong.class, LOOKUP))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Field BALANCE (packed_decimal, 2 decimals) cannot be bound to long");
+        assertThatThrownBy(() -> RecordBinder.of(layout, NumberAsString.class, LOOKUP))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cannot be bound to String");
+    }
+
+    @Test
+    void bindsBoxedAndFloatingPointComponents() {
+        Amounts amounts = RecordBinder.of(layout, Amounts.class, LOOKUP).bind(decoder());
+
+        assertThat(amounts.balance()).isEqualTo(-1234.56);
+        assertThat(amounts.customerId()).isEqualTo(123456789L);
+        assertThat(amounts.visitCount()).isEqualTo(42);
+    }
+
+    @Test
+    void bindsBeanSettersThatFitAndSkipsTheRest() {
+        CustomerBean bean = RecordBinder.of(layout, CustomerBean.class, LOOKUP).bind(decoder());
+
+        assertThat(bean.customerId).isEqualTo(123456789L);
+        assertThat(bean.customerName).isEqualTo("ALICE     ");
+        assertThat(bean.balance).isEqualByComparingTo("-1234.56");
+        assertThat(bean.note).isEqualTo("untouched");
+        // PHONE is text, so the long[] setter does not fit and is skipped
+        assertThat(bean.phoneNumbers).isNull();
+    }
+
+    private static RecordDecoder decoder() {
+        return new RecordDecoder(layout).wrap(record);
+    }
+}
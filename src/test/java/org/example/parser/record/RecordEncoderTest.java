@@ -0,0 +1,134 @@
+package org.example.parser.record;
+
+import org.example.parser.codec.CodePage;
+import org.example.parser.codec.ZonedDecimalCodec;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecordEncoderTest {
+    private static final ZonedDecimalCodec.Sign NONE = ZonedDecimalCodec.Sign.NONE;
+
+    /**
+     * NAME X(4), QTY S9(3) trailing overpunch, AMOUNT S9(3)V99 COMP-3, COUNT 9(4) COMP, UNSIGNED 9(4) COMP-3,
+     * BIG 9(18) COMP-5 (unsigned, 8 bytes), TOTAL S9(18) COMP-5, SHORT S9(4) COMP-5, RATE COMP-2.
+     */
+    private static final CompiledLayout LAYOUT = new CompiledLayout("REC", 44,
+            new String[] {"NAME", "QTY", "AMOUNT", "COUNT", "UNSIGNED", "BIG", "TOTAL", "SHORT", "RATE"},
+            new int[] {0, 4, 7, 10, 14, 17, 25, 33, 35},
+            new int[] {4, 3, 3, 4, 3, 8, 8, 2, 8},
+            new FieldType[] {FieldType.ALPHANUMERIC, FieldType.ZONED_DECIMAL, FieldType.PACKED_DECIMAL,
+                    FieldType.BINARY, FieldType.PACKED_DECIMAL, FieldType.NATIVE_BINARY, FieldType.NATIVE_BINARY,
+                    FieldType.NATIVE_BINARY, FieldType.DOUBLE},
+            new int[] {0, 3, 5, 4, 4, 18, 18, 4, 0},
+            new int[] {0, 0, 2, 0, 0, 0, 0, 0, 0},
+            new boolean[] {false, true, true, false, false, false, true, true, true},
+            new ZonedDecimalCodec.Sign[] {NONE, ZonedDecimalCodec.Sign.TRAILING, NONE, NONE, NONE, NONE, NONE,
+                    NONE, NONE});
+
+    private static final int NAME = 0;
+    private static final int QTY = 1;
+    private static final int AMOUNT = 2;
+    private static final int COUNT = 3;
+    private static final int UNSIGNED = 4;
+    private static final int BIG = 5;
+    private static final int TOTAL = 6;
+    private static final int SHORT = 7;
+    private static final int RATE = 8;
+
+    private final byte[] record = new byte[LAYOUT.getRecordLength()];
+    private final RecordEncoder encoder = new RecordEncoder(LAYOUT, CodePage.CP037).wrap(record).clear();
+    private final RecordDecoder decoder = new RecordDecoder(LAYOUT, CodePage.CP037).wrap(record);
+
+    @Test
+    void clearsToSpacesAndZeros() {
+        assertThat(decoder.getString(NAME)).isEqualTo("    ");
+        for (int field = QTY; field <= RATE; field++) {
+            assertThat(decoder.getDecimal(field).signum()).isZero();
+        }
+    }
+
+    @Test
+    void writesValuesDecodedBack() {
+        encoder.setString(NAME, "ABCDEF").setLong(QTY, -123).setDecimal(AMOUNT, new BigDecimal("-12.5"))
+                .setLong(COUNT, 9999).setDouble(RATE, -0.15625);
+
+        assertThat(decoder.getString(NAME)).isEqualTo("ABCD");
+        assertThat(decoder.getLong(QTY)).isEqualTo(-123);
+        assertThat(decoder.getDecimal(AMOUNT)).isEqualByComparingTo("-12.50");
+        assertThat(decoder.getLong(COUNT)).isEqualTo(9999);
+        assertThat(decoder.getDouble(RATE)).isEqualTo(-0.15625);
+    }
+
+    @Test
+    void rejectsLongsWithTooManyDigits() {
+        assertThatThrownBy(() -> encoder.setLong(QTY, 1000)).isInstanceOf(ArithmeticException.class)
+                .hasMessageContaining("more than the 3 digits of field QTY");
+        assertThatThrownBy(() -> encoder.setLong(AMOUNT, -100_000)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> encoder.setLong(COUNT, 10_000)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> encoder.setLong(SHORT, Short.MAX_VALUE + 1)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void rejectsNegativeLongsInUnsignedFields() {
+        assertThatThrownBy(() -> encoder.setLong(UNSIGNED, -1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> encoder.setLong(COUNT, -1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> encoder.setLong(BIG, -1)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void rejectsDecimalsThatWouldBeRoundedOrTruncated() {
+        assertThatThrownBy(() -> encoder.setDecimal(AMOUNT, new BigDecimal("1.005")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> encoder.setDecimal(AMOUNT, new BigDecimal("1000.00")))
+                .isInstanceOf(ArithmeticException.class)
+                .hasMessageContaining("field AMOUNT");
+        assertThatThrownBy(() -> encoder.setDecimal(QTY, new BigDecimal("1.5")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> encoder.setDecimal(COUNT, new BigDecimal("10000")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> encoder.setDecimal(TOTAL, new BigDecimal("9223372036854775808")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void writesUnsignedLongsAboveLongMaxValue() {
+        BigDecimal max = new BigDecimal("18446744073709551615");
+        encoder.setDecimal(BIG, max);
+        assertThat(decoder.getValue(BIG)).isEqualTo(max);
+
+        assertThatThrownBy(() -> encoder.setDecimal(BIG, max.add(BigDecimal.ONE)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void writesOtherNumbersWithoutTruncating() {
+        encoder.setValue(TOTAL, BigInteger.valueOf(Long.MAX_VALUE)).setValue(COUNT, new AtomicLong(42))
+                .setValue(AMOUNT, 7).setValue(QTY, (short) -5);
+
+        assertThat(decoder.getLong(TOTAL)).isEqualTo(Long.MAX_VALUE);
+        assertThat(decoder.getLong(COUNT)).isEqualTo(42);
+        assertThat(decoder.getDecimal(AMOUNT)).isEqualByComparingTo("7.00");
+        assertThat(decoder.getLong(QTY)).isEqualTo(-5);
+
+        BigInteger tooLarge = BigInteger.ONE.shiftLeft(64).add(BigInteger.TWO);
+        assertThatThrownBy(() -> encoder.setValue(TOTAL, tooLarge)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> encoder.setValue(QTY, BigInteger.valueOf(1000).shiftLeft(64)))
+                .isInstanceOf(ArithmeticException.class);
+        assertThat(decoder.getLong(TOTAL)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void rejectsValuesOfTheWrongKind() {
+        assertThatThrownBy(() -> encoder.setString(QTY, "1")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> encoder.setLong(NAME, 1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> encoder.setValue(QTY, new Object()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cannot write Object to field QTY");
+    }
+}
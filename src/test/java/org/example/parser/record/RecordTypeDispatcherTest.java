@@ -0,0 +1,168 @@
+package org.example.parser.record;
+
+import org.example.parser.CopybookParser;
+import org.example.parser.codec.CodePage;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecordTypeDispatcherTest {
+
+    @Test
+    void selectsLayoutByRecordType() throws IOException {
+        RecordTypeDispatcher dispatcher = RecordTypeDispatcher.of(parse(records("X(2)", "'HD'", "'DT'", "'TR'")),
+                CodePage.ASCII);
+
+        assertThat(dispatcher.getDiscriminatorOffset()).isZero();
+        assertThat(dispatcher.getDiscriminatorLength()).isEqualTo(2);
+        assertThat(dispatcher.select(ascii("HD"), 0)).isEqualTo(0);
+        assertThat(dispatcher.select(ascii("DT"), 0)).isEqualTo(1);
+        assertThat(dispatcher.select(ascii("TR"), 0)).isEqualTo(2);
+        assertThat(dispatcher.select(ascii("xxTRxx"), 2)).isEqualTo(2);
+        assertThat(dispatcher.selectLayout(ByteBuffer.wrap(ascii("DT")), 0).getName())
+                .isEqualTo("REC-1");
+    }
+
+    @Test
+    void selectsFallbackForUnknownRecordTypes() throws IOException {
+        CopybookParser.ParseResult result = parse(records("X(2)", "'HD'", "'DT'"));
+
+        assertThat(RecordTypeDispatcher.of(result, CodePage.ASCII).select(ascii("ZZ"), 0)).isEqualTo(-1);
+        assertThat(RecordTypeDispatcher.of(result, CompiledLayout.compile(result), CodePage.ASCII, 1)
+                .select(ascii("ZZ"), 0)).isEqualTo(1);
+        assertThatThrownBy(() -> RecordTypeDispatcher.of(result, CompiledLayout.compile(result), CodePage.ASCII, 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Fallback layout 2 does not exist");
+    }
+
+    @Test
+    void encodesRecordTypesInTheCodePage() throws IOException {
+        RecordTypeDispatcher dispatcher = RecordTypeDispatcher.of(parse(records("X(2)", "'HD'", "'DT'")),
+                CodePage.CP037);
+
+        assertThat(dispatcher.select("DT".getBytes(CodePage.CP037.getName()), 0)).isEqualTo(1);
+        assertThat(dispatcher.select(ascii("DT"), 0)).isEqualTo(-1);
+    }
+
+    @Test
+    void padsNumericRecordTypesWithZeros() throws IOException {
+        RecordTypeDispatcher dispatcher = RecordTypeDispatcher.of(parse(records("9(3)", "1", "20")),
+                CodePage.ASCII);
+
+        assertThat(dispatcher.select(ascii("001"), 0)).isEqualTo(0);
+        assertThat(dispatcher.select(ascii("020"), 0)).isEqualTo(1);
+        assertThat(dispatcher.select(ascii("1  "), 0)).isEqualTo(-1);
+    }
+
+    @Test
+    void acceptsRepeatedValuesOfOneLayout() throws IOException {
+        RecordTypeDispatcher dispatcher = RecordTypeDispatcher.of(parse(List.of(
+                "       01 RECORD-AREA PIC X(10).",
+                "       01 REC-0 REDEFINES RECORD-AREA.",
+                "          05 REC-TYPE PIC X(2).",
+                "             88 IS-HEADER VALUE 'HD'.",
+                "             88 IS-FIRST VALUE 'HD'.",
+                "             88 IS-START VALUE 'ST'.",
+                "          05 DATA-0 PIC X(8).",
+                "       01 REC-1 REDEFINES RECORD-AREA.",
+                "          05 REC-TYPE PIC X(2).",
+                "             88 IS-DETAIL VALUE 'DT'.",
+                "          05 DATA-1 PIC X(8).")), CodePage.ASCII);
+
+        assertThat(dispatcher.select(ascii("HD"), 0)).isEqualTo(0);
+        assertThat(dispatcher.select(ascii("ST"), 0)).isEqualTo(0);
+        assertThat(dispatcher.select(ascii("DT"), 0)).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsValueClaimedByTwoLayouts() throws IOException {
+        CopybookParser.ParseResult result = parse(records("X(2)", "'HD'", "'HD'"));
+
+        assertThatThrownBy(() -> RecordTypeDispatcher.of(result, CodePage.ASCII))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("'HD' is claimed by layouts REC-0 and REC-1");
+    }
+
+    @Test
+    void rejectsRecordTypesAtDifferentPositions() throws IOException {
+        CopybookParser.ParseResult result = parse(List.of(
+                "       01 RECORD-AREA PIC X(10).",
+                "       01 REC-0 REDEFINES RECORD-AREA.",
+                "          05 REC-TYPE PIC X(2).",
+                "             88 IS-HEADER VALUE 'HD'.",
+                "          05 DATA-0 PIC X(8).",
+                "       01 REC-1 REDEFINES RECORD-AREA.",
+                "          05 FILLER PIC X(1).",
+                "          05 REC-TYPE PIC X(2).",
+                "             88 IS-DETAIL VALUE 'DT'.",
+                "          05 DATA-1 PIC X(7)."));
+
+        assertThatThrownBy(() -> RecordTypeDispatcher.of(result, CodePage.ASCII))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Layout REC-1 stores its record type at position 2");
+    }
+
+    @Test
+    void comparesBytesOfRecordTypesLongerThanALong() throws IOException {
+        RecordTypeDispatcher dispatcher = RecordTypeDispatcher.of(
+                parse(records("X(12)", "'HEADER-0001'", "'HEADER-0002'", "'DETAIL'")), CodePage.ASCII);
+
+        assertThat(dispatcher.select(ascii("HEADER-0001 "), 0)).isEqualTo(0);
+        assertThat(dispatcher.select(ascii("HEADER-0002 "), 0)).isEqualTo(1);
+        assertThat(dispatcher.select(ascii("DETAIL      "), 0)).isEqualTo(2);
+        assertThat(dispatcher.select(ascii("HEADER-0003 "), 0)).isEqualTo(-1);
+        assertThat(dispatcher.select(ascii("DETAIL     X"), 0)).isEqualTo(-1);
+    }
+
+    @Test
+    void resolvesValuesSharingAFingerprintByTheirBytes() {
+        byte[] first = ascii("HEADER-0001 ");
+        byte[] second = ascii("HEADER-0002 ");
+        byte[] third = ascii("DETAIL      ");
+        // 64-bit hash collisions cannot be found for a test, so two values are given the first one's fingerprint
+        long fingerprint = RecordTypeDispatcher.Key.of(first).fingerprint();
+        Map<RecordTypeDispatcher.Key, Integer> entries = new LinkedHashMap<>();
+        entries.put(new RecordTypeDispatcher.Key(second, fingerprint), 1);
+        entries.put(new RecordTypeDispatcher.Key(first, fingerprint), 0);
+        entries.put(RecordTypeDispatcher.Key.of(third), 2);
+
+        RecordTypeDispatcher dispatcher = new RecordTypeDispatcher(List.of(), 3, 0, 12, entries);
+
+        assertThat(dispatcher.select(first, 0)).isEqualTo(0);
+        assertThat(dispatcher.select(third, 0)).isEqualTo(2);
+        assertThat(dispatcher.select(ascii("HEADER-0003 "), 0)).isEqualTo(3);
+    }
+
+    /**
+     * Layouts REC-0, REC-1, ... redefining one record area, each with a record type field of {@code picture} in its
+     * first bytes and one 88-level per value.
+     */
+    private static List<String> records(String picture, String... values) {
+        List<String> lines = new ArrayList<>();
+        lines.add("       01 RECORD-AREA PIC X(20).");
+        for (int i = 0; i < values.length; i++) {
+            lines.add("       01 REC-" + i + " REDEFINES RECORD-AREA.");
+            lines.add("          05 REC-TYPE PIC " + picture + ".");
+            lines.add("             88 IS-TYPE-" + i + " VALUE " + values[i] + ".");
+            lines.add("          05 DATA-" + i + " PIC X(8).");
+        }
+        return lines;
+    }
+
+    private static CopybookParser.ParseResult parse(List<String> lines) throws IOException {
+        return new CopybookParser().parseCopybook("types.cbl", lines);
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.parser.record;
+
+import org.example.parser.CopybookParser;
+import org.example.parser.codec.CodePage;
+import org.example.parser.codec.ZonedDecimalCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecordWriterTest {
+    private static final List<String> ACCOUNT = List.of(
+            "       01 ACCOUNT.",
+            "          05 ACCT-ID      PIC 9(9) COMP.",
+            "          05 ACCT-NAME    PIC X(12).",
+            "          05 BALANCE      PIC S9(9)V99 COMP-3.",
+            "          05 TXN-COUNT    PIC S9(5).",
+            "          05 CREDIT-LIMIT PIC 9(18) COMP-5.",
+            "          05 RATE         COMP-2.");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesRecordsThatDecodeToTheSameValues() throws IOException {
+        CompiledLayout layout = compile();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            rows.add(new Object[] {
+                    (long) i * 37_000_001 % 1_000_000_000,
+                    ("NAME-" + i + "            ").substring(0, 12),
+                    BigDecimal.valueOf(i % 2 == 0 ? i * 1_234_567L : -i * 98_765L, 2),
+                    (long) (i % 3 == 0 ? -i * 1_111 : i * 3_333),
+                    i % 5 == 0 ? new BigDecimal("18446744073709551615") : new BigDecimal(Long.MAX_VALUE - i),
+                    i / 8.0 - 1});
+        }
+
+        Path dataFile = directory.resolve("accounts.dat");
+        // Buffers of two records make the writer flush, windows of three records make the reader remap
+        try (RecordWriter writer = new RecordWriter(layout, CodePage.CP037, FileChannel.open(dataFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE), true, layout.getRecordLength() * 2)) {
+            for (Object[] row : rows) {
+                writer.next().encode(row);
+            }
+            assertThat(writer.getRecordCount()).isEqualTo(rows.size());
+        }
+        assertThat(Files.size(dataFile)).isEqualTo((long) rows.size() * layout.getRecordLength());
+
+        byte[] file = Files.readAllBytes(dataFile);
+        RecordEncoder encoder = new RecordEncoder(layout, CodePage.CP037);
+        try (MappedRecordReader reader = new MappedRecordReader(layout, CodePage.CP037,
+                MappedRecordReader.openChannel(dataFile), true, 0, -1, layout.getRecordLength() * 3L)) {
+            int record = 0;
+            while (reader.next()) {
+                Object[] values = reader.record().decode(new Object[layout.getFieldCount()]);
+                assertThat(values).as("record %d", record).containsExactly(rows.get(record));
+
+                // Encoding the decoded values again gives back the bytes on disk
+                byte[] encoded = new byte[layout.getRecordLength()];
+                encoder.wrap(encoded).clear().encode(values);
+                int start = record * layout.getRecordLength();
+                assertThat(encoded).as("record %d", record)
+                        .isEqualTo(Arrays.copyOfRange(file, start, start + layout.getRecordLength()));
+                record++;
+            }
+            assertThat(record).isEqualTo(rows.size());
+        }
+    }
+
+    @Test
+    void appendsEncodedRecordsAndRejectsOtherLengths() throws IOException {
+        CompiledLayout layout = compile();
+        Path dataFile = directory.resolve("raw.dat");
+        byte[] record = new byte[layout.getRecordLength()];
+        new RecordEncoder(layout).wrap(record).clear().setLong(0, 42).setString(1, "RAW");
+
+        try (RecordWriter writer = new RecordWriter(layout, dataFile)) {
+            writer.write(record);
+            assertThatThrownBy(() -> writer.write(new byte[record.length + 1]))
+                    .isInstanceOf(IllegalArgumentException.class);
+            CompiledLayout other = new CompiledLayout("OTHER", 1, new String[0], new int[0], new int[0],
+                    new FieldType[0], new int[0], new int[0], new boolean[0],
+                    new ZonedDecimalCodec.Sign[0]);
+            assertThatThrownBy(() -> writer.next(new RecordEncoder(other)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("has record length 1");
+        }
+
+        assertThat(Files.readAllBytes(dataFile)).isEqualTo(record);
+    }
+
+    private static CompiledLayout compile() throws IOException {
+        return CompiledLayout.compile(new CopybookParser().parseCopybook("account.cbl", ACCOUNT)).get(0);
+    }
+}